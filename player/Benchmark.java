@@ -0,0 +1,93 @@
+/* Benchmark.java */
+
+package player;
+
+import java.util.Random;
+
+/**
+ *  Measures how MachinePlayer's search scales with threads.  For each thread
+ *  count it chooses a move in the same set of positions, searching each to a
+ *  fixed depth, and prints the total time taken (the time to reach that depth)
+ *  and the number of positions searched per second by all threads together.
+ *  The opening book and the network solver are turned off, so only the
+ *  search is timed.
+ *
+ *  Usage: java player.Benchmark [depth [positions [mode [pvs]]]]
+ *  where mode is "lazy" (the default), "split" or "ybwc", and "pvs" turns on
+ *  principal variation search.
+ **/
+public class Benchmark {
+
+  private final static int[] THREADS = {1, 2, 4, 8};
+  private final static long SEED = 61;
+
+  /**
+   *  position() plays a random opening from a fixed seed onto a new MachinePlayer, so every
+   *  thread count is timed on the same positions. The opening stops early rather than
+   *  complete a network.
+   *  @param n is the number of the position.
+   *  @param depth is the search depth of the player.
+   *  @return a player of the color to move.
+   **/
+  private static MachinePlayer position(int n, int depth) {
+    Random random = new Random(SEED + n);
+    GameBoard board = new GameBoard(GameBoard.WHITE);
+    int plies = 6 + random.nextInt(20);
+    int[] moves = new int[GameBoard.MAXMOVES];
+    int[] played = new int[plies];
+    int player = GameBoard.WHITE;
+    int made = 0;
+    while (made < plies) {
+      int count = board.listMoves(player, moves);
+      int move = moves[1 + random.nextInt(count - 1)];
+      board.applyMove(move, player);
+      if (board.terminalStatus() != 0) {
+        board.revertMove(move, player);
+        break;
+      }
+      played[made++] = move;
+      player = GameBoard.BLACK + GameBoard.WHITE - player;
+    }
+    MachinePlayer machine = new MachinePlayer(player - 1, depth);
+    machine.setSolver(false);
+    machine.setOpeningBook(false);
+    for (int i = 0; i < made; i++) {
+      if ((made - i) % 2 == 0) {
+        machine.forceMove(PackedMove.toMove(played[i]));
+      } else {
+        machine.opponentMove(PackedMove.toMove(played[i]));
+      }
+    }
+    return machine;
+  }
+
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int positions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int mode = MachinePlayer.LAZYSMP;
+    if (args.length > 2 && args[2].equals("split")) {
+      mode = MachinePlayer.SPLITROOT;
+    } else if (args.length > 2 && args[2].equals("ybwc")) {
+      mode = MachinePlayer.YBWC;
+    }
+    System.out.println("depth " + depth + ", " + positions + " positions");
+    System.out.println("threads\tms\tnodes\tnodes/s");
+    for (int t = 0; t < THREADS.length; t++) {
+      long time = 0;
+      long nodes = 0;
+      for (int n = 0; n < positions; n++) {
+        MachinePlayer machine = position(n, depth);
+        machine.setThreads(THREADS[t], mode);
+        machine.setPrincipalVariation(args.length > 3 && args[3].equals("pvs"));
+        long start = System.nanoTime();
+        machine.chooseMove();
+        time += System.nanoTime() - start;
+        nodes += machine.nodeCount();
+        machine.setThreads(1);
+      }
+      long ms = Math.max(time / 1000000, 1);
+      System.out.println(THREADS[t] + "\t" + ms + "\t" + nodes + "\t" + nodes * 1000 / ms);
+    }
+  }
+
+}
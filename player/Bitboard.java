@@ -0,0 +1,178 @@
+/* Bitboard.java */
+
+package player;
+
+/**
+ *  Precomputed 64-bit masks used by GameBoard to represent the 8x8 Network
+ *  board.  Square (x, y) is bit number x + 8 * y, so each row of the board is
+ *  one byte of the long.  All tables are built once when the class loads.
+ **/
+final class Bitboard {
+
+  final static int DIMENSION = 8;
+  final static int SQUARES = DIMENSION * DIMENSION;
+
+  // The eight directions a connection can run in.  Direction d and 7 - d are
+  // opposites, which GameBoard.updateConnections() relies on to look both ways
+  // along a line.
+  final static int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+  final static int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+  final static long CORNERS = bit(0, 0) | bit(DIMENSION - 1, 0)
+                              | bit(0, DIMENSION - 1) | bit(DIMENSION - 1, DIMENSION - 1);
+
+  // GOALS[color][0] is the goal at the low edge, GOALS[color][1] the goal at
+  // the high edge.  Black's goals are rows 0 and 7, white's are columns 0 and 7.
+  final static long[][] GOALS = new long[3][2];
+
+  // FORBIDDEN[color] holds every square a chip of that color may never occupy:
+  // the four corners and the two goals of the other color.
+  final static long[] FORBIDDEN = new long[3];
+
+  // NEIGHBORS[sq] holds the (up to) eight squares adjacent to sq.
+  final static long[] NEIGHBORS = new long[SQUARES];
+
+  // RAYS[sq][d] holds every square strictly beyond sq in direction d.
+  final static long[][] RAYS = new long[SQUARES][8];
+
+  // Every square but those in the first (x = 0) or last (x = 7) column, used
+  // to stop sideways shifts from wrapping around into the next row.
+  private final static long NOTFIRSTCOLUMN = 0xFEFEFEFEFEFEFEFEL;
+  private final static long NOTLASTCOLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+  static {
+    for (int i = 1; i < DIMENSION - 1; i++) {
+      GOALS[GameBoard.BLACK][0] |= bit(i, 0);
+      GOALS[GameBoard.BLACK][1] |= bit(i, DIMENSION - 1);
+      GOALS[GameBoard.WHITE][0] |= bit(0, i);
+      GOALS[GameBoard.WHITE][1] |= bit(DIMENSION - 1, i);
+    }
+    FORBIDDEN[GameBoard.BLACK] = CORNERS | GOALS[GameBoard.WHITE][0] | GOALS[GameBoard.WHITE][1];
+    FORBIDDEN[GameBoard.WHITE] = CORNERS | GOALS[GameBoard.BLACK][0] | GOALS[GameBoard.BLACK][1];
+    for (int sq = 0; sq < SQUARES; sq++) {
+      int x = x(sq);
+      int y = y(sq);
+      for (int d = 0; d < 8; d++) {
+        if (inBound(x + DX[d], y + DY[d])) {
+          NEIGHBORS[sq] |= bit(x + DX[d], y + DY[d]);
+        }
+        for (int i = x + DX[d], j = y + DY[d]; inBound(i, j); i += DX[d], j += DY[d]) {
+          RAYS[sq][d] |= bit(i, j);
+        }
+      }
+    }
+  }
+
+  private Bitboard() {
+  }
+
+  /**
+   *  square() returns the bit number of the square at (x, y).
+   **/
+  static int square(int x, int y) {
+    return x + DIMENSION * y;
+  }
+
+  /**
+   *  x() and y() return the coordinates of the square with bit number sq.
+   **/
+  static int x(int sq) {
+    return sq & (DIMENSION - 1);
+  }
+
+  static int y(int sq) {
+    return sq >>> 3;
+  }
+
+  /**
+   *  bit() returns a mask with only the square at (x, y) set.
+   **/
+  static long bit(int x, int y) {
+    return 1L << square(x, y);
+  }
+
+  /**
+   *  inBound() checks if (x, y) lies on the board.
+   **/
+  static boolean inBound(int x, int y) {
+    return x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION;
+  }
+
+  /**
+   *  nearest() returns the first square of "pieces" met when walking from sq
+   *  in direction d, or -1 if there is none.
+   **/
+  static int nearest(int sq, int d, long pieces) {
+    long ray = RAYS[sq][d] & pieces;
+    if (ray == 0) {
+      return -1;
+    }
+    if (DX[d] + DIMENSION * DY[d] > 0) {
+      return Long.numberOfTrailingZeros(ray);
+    }
+    return 63 - Long.numberOfLeadingZeros(ray);
+  }
+
+  /**
+   *  isClustered() checks whether a chip placed on square sq would be part of
+   *  a group of three or more adjacent chips of the same color.
+   *  @param own holds the chips of the color being placed, not including sq.
+   *  @return true if the placement would form a cluster.
+   **/
+  static boolean isClustered(int sq, long own) {
+    long adjacent = NEIGHBORS[sq] & own;
+    if (adjacent == 0) {
+      return false;
+    }
+    if ((adjacent & (adjacent - 1)) != 0) {
+      return true;
+    }
+    return (NEIGHBORS[Long.numberOfTrailingZeros(adjacent)] & own) != 0;
+  }
+
+  /**
+   *  clusterSquares() returns every square where a chip would form a cluster,
+   *  as isClustered() decides, all at once: the squares next to two or more
+   *  chips of "own", and the squares next to a chip of "own" that already has
+   *  a neighbor in "own".  Squares in "own" may be set and should be ignored.
+   *  @param own holds the chips of the color being placed.
+   **/
+  static long clusterSquares(long own) {
+    // once collects the squares next to at least one chip and twice those
+    // next to at least two, adding the chips shifted one way at a time.
+    long east = (own << 1) & NOTFIRSTCOLUMN;
+    long west = (own >>> 1) & NOTLASTCOLUMN;
+    long once = east;
+    long twice = once & west;
+    once |= west;
+    long shifted = own << DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    shifted = own >>> DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    shifted = east << DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    shifted = east >>> DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    shifted = west << DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    shifted = west >>> DIMENSION;
+    twice |= once & shifted;
+    once |= shifted;
+    return twice | adjacent(own & once);
+  }
+
+  /**
+   *  adjacent() returns every square next to at least one square of "pieces".
+   **/
+  static long adjacent(long pieces) {
+    long sides = ((pieces << 1) & NOTFIRSTCOLUMN) | ((pieces >>> 1) & NOTLASTCOLUMN);
+    long row = pieces | sides;
+    return sides | (row << DIMENSION) | (row >>> DIMENSION);
+  }
+
+}
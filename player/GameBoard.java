@@ -1,7 +1,6 @@
 /* GameBoard.java */
 
 package player;
-import list.*;
 
 /**
  * A GameBoard class used by MachinePlayer to play the game, Network.
@@ -14,21 +13,158 @@ public class GameBoard {
 	protected final static int WHITE = 2;
 	protected final static int MAXBOARDSCORE = 110;
 	protected final static int MINBOARDSCORE = -110;
-	private int[][] board;
+	// Scores at least this far from 0 can only come from a network found by the search.
+	protected final static int NETWORKSCORE = 80;
+	// The most moves listMoves() can write: a quit move plus a step of each of 10 chips to any square.
+	protected final static int MAXMOVES = 1 + 10 * Bitboard.SQUARES;
+	// Values of networkStatus[] entries.
+	private final static int UNKNOWN = 0;
+	private final static int NONETWORK = 1;
+	private final static int NETWORK = 2;
+
+	// Zobrist keys: one per (color, square), one per (color, chips placed) and one
+	// toggled in when black is to move. The seed is fixed so keys are stable between runs.
+	private final static long[][] SQUARE_KEYS = new long[3][Bitboard.SQUARES];
+	private final static long[][] COUNT_KEYS = new long[3][11];
+	private final static long SIDE_KEY;
+
+	static {
+		java.util.Random random = new java.util.Random(0x6E6574776F726BL);
+		for (int color = BLACK; color <= WHITE; color++) {
+			for (int sq = 0; sq < Bitboard.SQUARES; sq++) {
+				SQUARE_KEYS[color][sq] = random.nextLong();
+			}
+			for (int count = 0; count < COUNT_KEYS[color].length; count++) {
+				COUNT_KEYS[color][count] = random.nextLong();
+			}
+		}
+		SIDE_KEY = random.nextLong();
+	}
+
+	private long[] chips;
+	private long occupied;
+	private int[] connections;
 	private int[] myPlayer;
 	private int[] opponent;
+	private int toMove;
+	private long hash;
+	private int[] pathSquares;
+	private int[] pathDirections;
+	private int[] pathNext;
+	private int[] networkStatus;
 
 	/** Creates a GameBoard.
+	 *  chips[BLACK] and chips[WHITE] are bitboards of each color's chips (see Bitboard), and
+	 *  occupied is the union of the two.
+	 *  connections[BLACK] and connections[WHITE] are each color's connectionCount(), kept up
+	 *  to date as chips are added and removed.
 	 *  myPlayer[0] and opponent[0] is an integer representing the color of the player: 1 for black, 2 for white.
 	 *  myPlayer[1] and opponent[1] is an integer representing the number of pieces placed by the player
+	 *  toMove is the color of the player whose turn it is, and hash is the Zobrist key of the
+	 *  position, kept up to date as moves are made and undone.
+	 *  pathSquares, pathDirections and pathNext are the stack used by hasValidNetwork().
+	 *  networkStatus[BLACK] and networkStatus[WHITE] remember whether each color has a network
+	 *  (NETWORK or NONETWORK) until a change to the board could alter it (UNKNOWN).
 	 *  @param playerColor is an integer that is either 1 for black or 2 for white.
 	 *  White has first move.
 	**/
 
 	public GameBoard(int playerColor) {
-		board = new int[DIMENSION][DIMENSION];
+		chips = new long[3];
+		occupied = 0;
+		connections = new int[3];
 		myPlayer = new int[]{playerColor, 0};
 		opponent = new int[]{3 - playerColor, 0};
+		toMove = WHITE;
+		hash = COUNT_KEYS[BLACK][0] ^ COUNT_KEYS[WHITE][0];
+		pathSquares = new int[10];
+		pathDirections = new int[10];
+		pathNext = new int[10];
+		networkStatus = new int[3];
+
+	}
+
+	/** Creates a copy of a GameBoard. The copy shares nothing with the original, so each can
+	 *  be changed, or used by a different thread, without affecting the other.
+	 *  @param other is the GameBoard to copy.
+	**/
+	public GameBoard(GameBoard other) {
+		chips = other.chips.clone();
+		occupied = other.occupied;
+		connections = other.connections.clone();
+		myPlayer = other.myPlayer.clone();
+		opponent = other.opponent.clone();
+		toMove = other.toMove;
+		hash = other.hash;
+		pathSquares = new int[10];
+		pathDirections = new int[10];
+		pathNext = new int[10];
+		networkStatus = other.networkStatus.clone();
+	}
+
+	/**
+	 *  snapshot() records the state of this GameBoard in an immutable Snapshot. A Snapshot can
+	 *  be shared by any number of threads, each restore()ing it into a board of its own.
+	 *  @return the Snapshot.
+	**/
+	protected Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 *  restore() sets this GameBoard to the state recorded in a Snapshot, so it plays on exactly
+	 *  as the board the Snapshot was taken from would. Nothing is allocated, so a board can be
+	 *  reset to a position far faster than its moves can be undone or a new board made.
+	 *  @param position is the Snapshot to restore.
+	**/
+	protected void restore(Snapshot position) {
+		chips[BLACK] = position.black;
+		chips[WHITE] = position.white;
+		occupied = position.black | position.white;
+		myPlayer[0] = position.myColor;
+		opponent[0] = 3 - position.myColor;
+		owner(BLACK)[1] = position.blackPlaced;
+		owner(WHITE)[1] = position.whitePlaced;
+		connections[BLACK] = position.blackConnections;
+		connections[WHITE] = position.whiteConnections;
+		networkStatus[BLACK] = position.blackNetwork;
+		networkStatus[WHITE] = position.whiteNetwork;
+		toMove = position.toMove;
+		hash = position.hash;
+	}
+
+	/**
+	 *  An immutable record of the state of a GameBoard: the two bitboards of chips, the Zobrist
+	 *  key and a few small counters. Everything else a GameBoard holds is derived from these or
+	 *  is scratch space.
+	**/
+	protected static final class Snapshot {
+
+		private final long black;
+		private final long white;
+		private final long hash;
+		private final int myColor;
+		private final int toMove;
+		private final int blackPlaced;
+		private final int whitePlaced;
+		private final int blackConnections;
+		private final int whiteConnections;
+		private final int blackNetwork;
+		private final int whiteNetwork;
+
+		private Snapshot(GameBoard board) {
+			black = board.chips[BLACK];
+			white = board.chips[WHITE];
+			hash = board.hash;
+			myColor = board.myPlayer[0];
+			toMove = board.toMove;
+			blackPlaced = board.owner(BLACK)[1];
+			whitePlaced = board.owner(WHITE)[1];
+			blackConnections = board.connections[BLACK];
+			whiteConnections = board.connections[WHITE];
+			blackNetwork = board.networkStatus[BLACK];
+			whiteNetwork = board.networkStatus[WHITE];
+		}
 
 	}
 
@@ -52,25 +188,43 @@ public class GameBoard {
 	**/
 	protected boolean isValidMove(Move move, int player) {
 		if (move.moveKind == Move.ADD) {
-			if ((player == myPlayer[0] && myPlayer[1] == 10) || (player == opponent[0] && opponent[1] == 10)) {
+			if (!inBound(move.x1, move.y1)) {
 				return false;
 			}
-			if (!inBound(move.x1, move.y1)) {
+		} else if (move.moveKind == Move.STEP) {
+			if (!inBound(move.x1, move.y1) || !inBound(move.x2, move.y2)) {
 				return false;
 			}
 		} else {
-			if ((player == myPlayer[0] && myPlayer[1] < 10) || (player == opponent[0] && opponent[1] < 10)) {
+			return false;
+		}
+		return isValidMove(PackedMove.fromMove(move), player);
+	}
+
+	/**
+	 *  isValidMove() determines if a packed move is valid, by the rules listed above.
+	 *  @param move is the move, packed as described in PackedMove.
+	 *  @param player is an integer representing the player making this move.
+	 *  @return true if the move is valid; else, return false.
+	**/
+	protected boolean isValidMove(int move, int player) {
+		int kind = PackedMove.kind(move);
+		if (kind == Move.ADD) {
+			if (owner(player)[1] == 10) {
 				return false;
 			}
-			if (!inBound(move.x1, move.y1) || !inBound(move.x2, move.y2)) {
+		} else if (kind == Move.STEP) {
+			if (owner(player)[1] < 10) {
 				return false;
 			}
-			if (board[move.x2][move.y2] != player) {
+			if ((chips[player] & (1L << PackedMove.from(move))) == 0) {
 				return false;
 			}
-			if ((move.x1 == move.x2) && (move.y1 == move.y2)) {
+			if (PackedMove.from(move) == PackedMove.to(move)) {
 				return false;
 			}
+		} else {
+			return false;
 		}
 		if (!checkMoveRequirements(move, player)) {
 			return false;
@@ -85,7 +239,7 @@ public class GameBoard {
 	 *  @return true if the coordinates are within the board DIMENSION. false else.
 	**/
 	private boolean inBound(int x, int y) {
-		return x >= 0 && x < DIMENSION && y >= 0 && y < DIMENSION;
+		return Bitboard.inBound(x, y);
 	}
 
 	/**
@@ -102,117 +256,37 @@ public class GameBoard {
 	 *  @param player is an integer representing the color of the player making the move.
 	 *  @return true if the move passes the above requirements. false else.
 	**/
-	private boolean checkMoveRequirements(Move m, int player) {
-		if ((m.x1 == 0 && (m.y1 == 0 || m.y1 == DIMENSION - 1)) ||
-				(m.x1 == DIMENSION - 1 && (m.y1 == 0 || m.y1 == DIMENSION - 1))) {
-			return false;
-		}
-		if (player == BLACK && (m.x1 == DIMENSION - 1 || m.x1 == 0)) {
+	private boolean checkMoveRequirements(int m, int player) {
+		int sq = PackedMove.to(m);
+		long mask = 1L << sq;
+		if ((Bitboard.FORBIDDEN[player] & mask) != 0) {
 			return false;
 		}
-		if (player == WHITE && (m.y1 == 0 || m.y1 == DIMENSION - 1)) {
+		if ((occupied & mask) != 0) {
 			return false;
 		}
-		if (board[m.x1][m.y1] != 0) {
+		if (isClustered(sq, player, m)) {
 			return false;
 		}
-		for (int i = m.x1 - 1; i <= m.x1 + 1; i++) {
-			for (int j = m.y1 - 1; j <= m.y1 + 1; j++) {
-				if (inBound(i, j) && (board[i][j] == player || ((i == m.x1) && (j == m.y1)))) {
-					if (isClustered(i, j, player, m)) {
-						return false;
-					}
-				}
-			}
-		}
 		return true;
 	}
 
 	/**
-	 *  Implemented by zm
-	 *  isClustered() is a helper method used by checkMoveRequirements() that checks if the chip 
-	 *  at a coordinate is clustered.
-	 *  A chip is clustered if any of the chips directly adjacent this chip are not empty.
-	 *  @param x and y are integers indicating the location of the chip to check.
+	 *  isClustered() is a helper method used by checkMoveRequirements() that checks if a chip 
+	 *  placed on a square would be clustered.
+	 *  A chip is clustered if it is part of a group of three or more adjacent chips of the same
+	 *  color. For a step move, the chip leaving its old square is not counted.
+	 *  @param sq is the bit number of the square the chip is placed on.
 	 *  @param player is the color of the chip to check.
+	 *  @param m is the packed move placing the chip.
 	 *  @return true if the chip at the location is clustered. false else.
 	**/
-	private boolean isClustered(int x, int y, int player, Move m) {
-		if (m.moveKind == Move.ADD) {
-			int count = 0;
-			for (int i = x - 1; i <= x + 1; i++) {
-				for (int j = y - 1; j <= y + 1; j++) {
-					if (inBound(i, j)) {
-						if (board[i][j] == player) {
-							count++;
-						}
-						if (count > 1) {
-							return true;
-						}
-					}
-				}
-			}
-		} else if (m.moveKind == Move.STEP) {
-			Move temp_add = new Move(m.x1, m.y1);
-			Move temp_remove = new Move(m.x2, m.y2);
-			undoMove(temp_remove);
-			boolean clustered = isClustered(x, y, player, temp_add);
-			makeMove(temp_remove, player);
-			return clustered;
-		}
-		return false;
-	}
-
-	/**
-	 *  Implemented by zm
-	 *  findConnections() finds all chips which are connections to a specified chip. 
-	 *  A chip is a connection to another if it runs along a straight line, is orthogonal 
-	 *  or diagonal to the indicated chip and if the chip is the first chip that is along 
-	 *  the line originating from the specified chip. 
-	 *  @param x is an Integer that is the x-coordinate of the chip
-	 *  @param y is an Integer that is the y-coordinate of the chip
-	 *  @return a DList, in which each node.item is a 1x2 array, where the first entry is the 
-	 *  x-coordinate of the connected chip and the second entry is the y-coordinate of the 
-	 *  connected chip.
-	**/
-	protected int[][] findConnections(int x, int y) {
-		int[][] connections = new int[8][2];
-		int index = 0;
-		for (int i = -1; i <= 1; i++) {
-		  for (int j = -1; j <= 1; j++) {
-		    if (i != 0 || j != 0) {
-		    	connections[index] = vectorSearch(x, y, i, j);
-		    	index++;
-		    }
-		  }
-		}
-		return connections;
-	}
-
-	/**
-	 *  Implemented by zm
-	 *  vectorSearch() is a helper method for findConnections() to search for a connection in a 
-	 *  given direction.
-	 *  A chip is a connection to another if it runs along a straight line, is orthogonal 
-	 *  or diagonal to the indicated chip and if the chip is the first chip that is along 
-	 *  the line originating from the specified chip.
-	 *  @param x and y are integers giving the starting position of the search.
-	 *  @param x_vector and y_vector are integers ranging from -1 to 1, giving the direction to 
-	 *  search.
-	 *  @return a 1x2 integer array, where the first entry is the x-coordinate of the connection and 
-	 *  the second entry is the y-coordinate of the connected chip.
-	 *  @return null if there is no connection found in the direction specified by x_vector, y_vector
-	**/
-	private int[] vectorSearch(int x, int y, int x_vector, int y_vector) {
-		for (int i = x + x_vector, j = y + y_vector; i >= 0 && i < DIMENSION && j >= 0 && j < DIMENSION; i += x_vector, j += y_vector) {
-			if (board[i][j] > 0) {
-				if (board[i][j] == board[x][y]) {
-					return new int[] {i, j};
-				}
-				break;
-			}
+	private boolean isClustered(int sq, int player, int m) {
+		long own = chips[player];
+		if (PackedMove.kind(m) == Move.STEP) {
+			own &= ~(1L << PackedMove.from(m));
 		}
-		return null;
+		return Bitboard.isClustered(sq, own);
 	}
 
 	/**
@@ -232,60 +306,360 @@ public class GameBoard {
 	 *  @return score is an Integer that rates how good the board is.
 	**/
 	protected int evalBoard(int moves_made) {
-		int score = 0;
-		if (hasValidNetwork(myPlayer[0])) {
+		return evalBoard(myPlayer[0], moves_made);
+	}
+
+	/**
+	 *  evalBoard() rates the board as evalBoard(moves_made) does, but for a specified player
+	 *  instead of the Machine player, so evalBoard(player, m) == -evalBoard(opponentOf(player), m).
+	 *  The search uses it to score positions for the player to move.
+	 *  If both players have a network, the Machine player's counts as the one made.
+	 *  @param player is an integer representing the color of the player to rate the board for.
+	 *  @param moves_made is an integer that tells you how many moves you have made.
+	 *  @return score is an Integer that rates how good the board is for player.
+	**/
+	protected int evalBoard(int player, int moves_made) {
+		int other = opponentOf(player);
+		if (hasValidNetwork(player) && (player == myPlayer[0] || !hasValidNetwork(other))) {
 			return MAXBOARDSCORE - moves_made;
-		} else if (hasValidNetwork(opponent[0])) {
+		} else if (hasValidNetwork(other)) {
 			return MINBOARDSCORE + moves_made;
 		}
-		for (int i = 0; i < DIMENSION; i++) {
-			if (board[i][0] == BLACK || board[i][DIMENSION-1] == BLACK) {
-				if (myPlayer[0] == BLACK) {
-					score += 3;
-				} else {
-					score -= 3;
+		int score = 3 * (goalCount(player) - goalCount(other));
+		score += connections[player];
+		score -= connections[other];
+		return score;
+	}
+
+	/**
+	 *  opponentOf() returns the color playing against a specified color.
+	 *  @param player is an integer representing the color of the player.
+	 *  @return WHITE for BLACK and BLACK for WHITE.
+	**/
+	protected static int opponentOf(int player) {
+		return BLACK + WHITE - player;
+	}
+
+	/**
+	 *  canReachNetwork() is a quick test of whether a specified player could have a network
+	 *  after making a number of moves of its own. A network needs a chip in each goal and at
+	 *  least 6 chips, and each move puts at most one chip in a goal and adds at most one chip.
+	 *  @param player is an integer representing the color of the player.
+	 *  @param moves is the number of moves the player makes.
+	 *  @return false if player cannot possibly have a network after that many moves.
+	**/
+	protected boolean canReachNetwork(int player, int moves) {
+		long own = chips[player];
+		int missing = 0;
+		if ((own & Bitboard.GOALS[player][0]) == 0) {
+			missing++;
+		}
+		if ((own & Bitboard.GOALS[player][1]) == 0) {
+			missing++;
+		}
+		int added = Math.min(moves, 10 - owner(player)[1]);
+		return missing <= moves && Long.bitCount(own) + added >= 6;
+	}
+
+	/**
+	 *  isTactical() determines whether a valid move is a threat-related one: the chip it puts
+	 *  down could be part of a network, or it cuts a connection between two chips of the
+	 *  opponent. A chip can only be part of a network if it connects to chips of the player
+	 *  along two different lines, since a network turns at every chip, or if it lands in a goal
+	 *  and connects to a chip outside that goal. Most quiet moves are none of these.
+	 *  @param m is the packed move.
+	 *  @param player is an integer representing the color of the player making the move.
+	 *  @return true if the move extends a chain of the player or blocks one of the opponent.
+	**/
+	protected boolean isTactical(int m, int player) {
+		int sq = PackedMove.to(m);
+		long own = chips[player];
+		long pieces = occupied;
+		if (PackedMove.kind(m) == Move.STEP) {
+			own &= ~(1L << PackedMove.from(m));
+			pieces &= ~(1L << PackedMove.from(m));
+		}
+		int needed = 2;
+		for (int end = 0; end < 2; end++) {
+			if ((Bitboard.GOALS[player][end] & (1L << sq)) != 0) {
+				own &= ~Bitboard.GOALS[player][end];
+				needed = 1;
+			}
+		}
+		for (int d = 0; d < 4; d++) {
+			int a = Bitboard.nearest(sq, d, pieces);
+			int b = Bitboard.nearest(sq, 7 - d, pieces);
+			if ((a >= 0 && (own & (1L << a)) != 0) || (b >= 0 && (own & (1L << b)) != 0)) {
+				needed--;
+			}
+		}
+		return needed <= 0 || cutsConnection(m, player);
+	}
+
+	/**
+	 *  cutsConnection() determines whether a valid move puts a chip between two chips of the
+	 *  opponent that see each other, cutting their connection.
+	 *  @param m is the packed move.
+	 *  @param player is an integer representing the color of the player making the move.
+	 *  @return true if the move cuts a connection of the opponent.
+	**/
+	protected boolean cutsConnection(int m, int player) {
+		int sq = PackedMove.to(m);
+		long pieces = occupied;
+		if (PackedMove.kind(m) == Move.STEP) {
+			pieces &= ~(1L << PackedMove.from(m));
+		}
+		long other = chips[opponentOf(player)];
+		for (int d = 0; d < 4; d++) {
+			int a = Bitboard.nearest(sq, d, pieces);
+			int b = Bitboard.nearest(sq, 7 - d, pieces);
+			if (a >= 0 && b >= 0 && (other & (1L << a)) != 0 && (other & (1L << b)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  blockingSquares() returns the squares where a chip of the opponent would stop a move from
+	 *  connecting its chip as it does: the move's new square, and every empty square between it
+	 *  and a chip of the player that the new square would see.
+	 *  @param m is the packed move.
+	 *  @param player is an integer representing the color of the player making the move.
+	 *  @return the squares, as a bitboard.
+	**/
+	protected long blockingSquares(int m, int player) {
+		int sq = PackedMove.to(m);
+		long pieces = occupied;
+		if (PackedMove.kind(m) == Move.STEP) {
+			pieces &= ~(1L << PackedMove.from(m));
+		}
+		long own = chips[player] & pieces;
+		long squares = 1L << sq;
+		for (int d = 0; d < 8; d++) {
+			int end = Bitboard.nearest(sq, d, pieces);
+			if (end >= 0 && (own & (1L << end)) != 0) {
+				squares |= Bitboard.RAYS[sq][d] & ~Bitboard.RAYS[end][d] & ~(1L << end);
+			}
+		}
+		return squares & ~pieces;
+	}
+
+	/**
+	 *  completingMove() looks for a move that completes a network of a specified player, without
+	 *  completing one of the opponent too. Rather than list every move, it first picks out the
+	 *  empty squares where a chip could join chains reaching both goals (see mayCompleteNetwork()),
+	 *  and tries only moves to those. A network that does not use the moved chip is not looked for.
+	 *  For a step move, taking the chip away from its old square can only change what the new
+	 *  square sees along the line through the old one, and can only add a connection the chip
+	 *  itself blocked. So unless the old square is one the new square sees, or lies between two
+	 *  chips of the player, the step can only complete a network if adding a chip on the new
+	 *  square would; that is checked once for each square, instead of once for each step.
+	 *  @param player is an integer representing the color of the player.
+	 *  @return a completing move, packed, or QUIT if none was found.
+	**/
+	protected int completingMove(int player) {
+		return completingMove(player, false);
+	}
+
+	/**
+	 *  winningMove() looks for a move after which evalBoard() scores the board as a win for a
+	 *  specified player. That is a move completingMove() finds, or, for this board's own color,
+	 *  one that completes networks of both players, since evalBoard() counts this color's
+	 *  network as the one made.
+	 *  @param player is an integer representing the color of the player.
+	 *  @return a winning move, packed, or QUIT if none was found.
+	**/
+	protected int winningMove(int player) {
+		return completingMove(player, player == myPlayer[0]);
+	}
+
+	/**
+	 *  completingMove() looks for a move as completingMove(player) does.
+	 *  @param player is an integer representing the color of the player.
+	 *  @param both is true if a move that completes a network of the opponent too will do.
+	 *  @return a completing move, packed, or QUIT if none was found.
+	**/
+	private int completingMove(int player, boolean both) {
+		long own = chips[player];
+		long low = chainedToGoal(player, 0);
+		long high = chainedToGoal(player, 1);
+		boolean step = owner(player)[1] == 10;
+		long blockers = 0;
+		if (step) {
+			long pieces = own;
+			while (pieces != 0) {
+				int sq = Long.numberOfTrailingZeros(pieces);
+				pieces &= pieces - 1;
+				for (int d = 0; d < 4; d++) {
+					int a = Bitboard.nearest(sq, d, occupied);
+					int b = Bitboard.nearest(sq, 7 - d, occupied);
+					if (a >= 0 && b >= 0 && (own & (1L << a)) != 0 && (own & (1L << b)) != 0) {
+						blockers |= 1L << sq;
+					}
 				}
-			} 
-		}
-		for (int i = 0; i < DIMENSION; i++) {
-			if (board[0][i] == WHITE || board[DIMENSION-1][i] == WHITE) {
-				if (myPlayer[0] == WHITE) {
-					score += 3;
-				} else {
-					score -= 3;
+			}
+		}
+		long targets = ~occupied & ~Bitboard.FORBIDDEN[player];
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			boolean reaches = mayCompleteNetwork(to, occupied, player, low, high);
+			if (!step) {
+				if (reaches && !Bitboard.isClustered(to, own)
+						&& completes(PackedMove.add(to), player, both)) {
+					return PackedMove.add(to);
+				}
+				continue;
+			}
+			long seen = 0;
+			for (int d = 0; d < 8; d++) {
+				int found = Bitboard.nearest(to, d, occupied);
+				if (found >= 0) {
+					seen |= 1L << found;
+				}
+			}
+			long sources = own & (seen | blockers);
+			if (reaches) {
+				addChip(to, player);
+				if (hasValidNetwork(player)) {
+					sources = own;
+				}
+				removeChip(to, player);
+			}
+			while (sources != 0) {
+				int from = Long.numberOfTrailingZeros(sources);
+				sources &= sources - 1;
+				long fromBit = 1L << from;
+				boolean candidate = (seen & fromBit) == 0 ? reaches || (blockers & fromBit) != 0
+						: mayCompleteNetwork(to, occupied & ~fromBit, player, low, high);
+				if (candidate && !Bitboard.isClustered(to, own & ~fromBit)
+						&& completes(PackedMove.step(from, to), player, both)) {
+					return PackedMove.step(from, to);
 				}
 			}
 		}
-		score += connectionCount(myPlayer[0]);
-		score -= connectionCount(opponent[0]);
-		return score;
+		return PackedMove.QUIT;
+	}
+
+	/**
+	 *  completes() tries a valid move on the board to see whether it completes a network of the
+	 *  player making it, without completing one of the opponent too unless both is true.
+	 *  @param m is the packed move.
+	 *  @param player is an integer representing the color of the player making the move.
+	 *  @param both is true if a network of the opponent too does not matter.
+	 *  @return true if the move wins the game.
+	**/
+	private boolean completes(int m, int player, boolean both) {
+		place(m, player);
+		boolean won = hasValidNetwork(player) && (both || !hasValidNetwork(opponentOf(player)));
+		revertMove(m, player);
+		return won;
+	}
+
+	/**
+	 *  chainedToGoal() finds the chips of a specified player joined to one of its goals by a
+	 *  chain of connections. The rules a network must also obey (turning at every chip, six
+	 *  chips, one chip per goal) are ignored, so every chip of a network is in the result for
+	 *  both goals.
+	 *  @param player is an integer representing the color of the player.
+	 *  @param end is 0 for the goal at the low edge, 1 for the one at the high edge.
+	 *  @return the bitboard of the chips found.
+	**/
+	private long chainedToGoal(int player, int end) {
+		long own = chips[player];
+		long found = own & Bitboard.GOALS[player][end];
+		long frontier = found;
+		while (frontier != 0) {
+			int sq = Long.numberOfTrailingZeros(frontier);
+			frontier &= frontier - 1;
+			for (int d = 0; d < 8; d++) {
+				int next = Bitboard.nearest(sq, d, occupied);
+				if (next >= 0 && (own & ~found & (1L << next)) != 0) {
+					found |= 1L << next;
+					frontier |= 1L << next;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 *  mayCompleteNetwork() is a quick test of whether a chip put on an empty square could be
+	 *  part of a network: it must join a chain reaching each goal, along two different lines,
+	 *  or lie in one goal and join a chain reaching the other.
+	 *  @param sq is the square.
+	 *  @param pieces is the bitboard of the chips on the board, with the square empty.
+	 *  @param player is an integer representing the color of the chip.
+	 *  @param low is chainedToGoal(player, 0).
+	 *  @param high is chainedToGoal(player, 1).
+	 *  @return false if the chip cannot be part of a network.
+	**/
+	private boolean mayCompleteNetwork(int sq, long pieces, int player, long low, long high) {
+		boolean inLow = (Bitboard.GOALS[player][0] & (1L << sq)) != 0;
+		boolean inHigh = (Bitboard.GOALS[player][1] & (1L << sq)) != 0;
+		int lowLines = 0;
+		int highLines = 0;
+		for (int d = 0; d < 4; d++) {
+			int a = Bitboard.nearest(sq, d, pieces);
+			int b = Bitboard.nearest(sq, 7 - d, pieces);
+			long seen = (a >= 0 ? 1L << a : 0) | (b >= 0 ? 1L << b : 0);
+			if ((seen & low) != 0) {
+				lowLines |= 1 << d;
+			}
+			if ((seen & high) != 0) {
+				highLines |= 1 << d;
+			}
+		}
+		if (inLow) {
+			return highLines != 0;
+		} else if (inHigh) {
+			return lowLines != 0;
+		}
+		return lowLines != 0 && highLines != 0 && Integer.bitCount(lowLines | highLines) >= 2;
 	}
 
 	/**
 	 *  Implemented by zm
 	 *  connectionCount() counts the number of connections a specified player has.
-	 *  This is a helper method used by evalBoard().
+	 *  evalBoard() reads the counts kept in connections instead; this method recomputes one
+	 *  from scratch to check it.
 	 *  @param player is an int specifying the player for whom to check connections.
 	 *  @return an integer specifying the number of connections between chips of the player.
 	**/
 	private int connectionCount(int player) {
 		int count = 0;
-		int[][] temp_conn;
-		for (int i = 0; i < DIMENSION; i++) {
-			for (int j = 0; j < DIMENSION; j++) {
-				if (board[i][j] == player) {
-					temp_conn = findConnections(i, j);
-					for (int k = 0; k < temp_conn.length; k++) {
-						if (temp_conn[k] != null) {
-							count++;
-						}				
-					}
+		long pieces = chips[player];
+		while (pieces != 0) {
+			int sq = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			for (int d = 0; d < 8; d++) {
+				int found = Bitboard.nearest(sq, d, occupied);
+				if (found >= 0 && (chips[player] & (1L << found)) != 0) {
+					count++;
 				}
 			}
 		}
 		return count;
 	}
 
+	/**
+	 *  goalCount() counts the goal lines a specified player has chips in. A line running
+	 *  across the board from one goal to the other is counted once, whether the player has
+	 *  chips in one or both of its ends.
+	 *  This is a helper method used by evalBoard().
+	 *  @param player is an int specifying the player whose goals to check.
+	 *  @return the number of goal lines holding a chip of the player.
+	**/
+	private int goalCount(int player) {
+		long low = chips[player] & Bitboard.GOALS[player][0];
+		long high = chips[player] & Bitboard.GOALS[player][1];
+		if (player == BLACK) {
+			return Long.bitCount(low | (high >>> (DIMENSION * (DIMENSION - 1))));
+		}
+		return Long.bitCount(low | (high >>> (DIMENSION - 1)));
+	}
+
 	/**
 	 *  Implemented by zm
 	 *  makeMove() takes input Move m and updates the game board if the move is 
@@ -294,17 +668,53 @@ public class GameBoard {
 	**/
 	protected void makeMove(Move m, int player) {
 		if (isValidMove(m, player)) {
-			board[m.x1][m.y1] = player;
-			if (m.moveKind == Move.STEP) {
-				board[m.x2][m.y2] = 0;
-			} else {
-				if (myPlayer[0] == player) {
-					myPlayer[1]++;
-				} else {
-					opponent[1]++;
-				}
-			}
+			place(PackedMove.fromMove(m), player);
+		}
+	}
+
+	/**
+	 *  makeMove() takes a packed move and updates the game board if the move is legal.
+	 *  @param m is the packed move that the player wants to make on the board.
+	 *  @param player is an integer representing the color of the player making the move.
+	**/
+	protected void makeMove(int m, int player) {
+		if (isValidMove(m, player)) {
+			place(m, player);
+		}
+	}
+
+	/**
+	 *  applyMove() makes a packed move that is known to be valid, such as one just listed by
+	 *  listMoves(), without checking it again. The search makes every move this way; only moves
+	 *  from outside the player need the check in makeMove(). A valid move changes the board
+	 *  exactly as makeMove() would, and so does the quit move, which changes nothing.
+	 *  Run with assertions enabled (java -ea), applyMove() checks the move all the same and
+	 *  fails on any that makeMove() would have refused.
+	 *  @param m is the packed move, valid for the player or QUIT.
+	 *  @param player is an integer representing the color of the player making the move.
+	**/
+	protected void applyMove(int m, int player) {
+		assert m == PackedMove.QUIT || isValidMove(m, player) : "invalid move " + m;
+		if (m != PackedMove.QUIT) {
+			place(m, player);
+		}
+	}
+
+	/**
+	 *  place() updates the game board, the chip counts and the hash for a legal move.
+	 *  @param m is the packed move.
+	 *  @param player is an integer representing the color of the player making the move.
+	**/
+	private void place(int m, int player) {
+		if (PackedMove.kind(m) == Move.STEP) {
+			removeChip(PackedMove.from(m), player);
+		} else {
+			int[] side = owner(player);
+			hash ^= COUNT_KEYS[player][side[1]] ^ COUNT_KEYS[player][side[1] + 1];
+			side[1]++;
 		}
+		addChip(PackedMove.to(m), player);
+		setToMove(3 - player);
 	}
 
 	/**
@@ -314,17 +724,175 @@ public class GameBoard {
 	 *  @param Move m is the move that has to be undone.
 	 **/
 	protected void undoMove(Move m) {
-		if (m.moveKind == Move.ADD) {
-			if (board[m.x1][m.y1] == myPlayer[0]) {
-				myPlayer[1]--;
-			} else {
-				opponent[1]--;
+		if (m.moveKind == Move.QUIT) {
+			return;
+		}
+		undoMove(PackedMove.fromMove(m));
+	}
+
+	/**
+	 *  undoMove() takes a packed move and updates the game board back to its previous
+	 *  state before the move was made.
+	 *  @param m is the packed move that has to be undone.
+	 **/
+	protected void undoMove(int m) {
+		int to = PackedMove.to(m);
+		int player = colorOf(to);
+		if (PackedMove.kind(m) == Move.QUIT || (chips[player] & (1L << to)) == 0) {
+			return;
+		}
+		revertMove(m, player);
+	}
+
+	/**
+	 *  revertMove() undoes a packed move made by applyMove(), the last move made on the board,
+	 *  without the checks in undoMove(). With assertions enabled it checks that the player has a
+	 *  chip on the move's new square, as undoMove() does.
+	 *  @param m is the packed move to undo, or QUIT, which changes nothing.
+	 *  @param player is an integer representing the color of the player who made the move.
+	**/
+	protected void revertMove(int m, int player) {
+		int kind = PackedMove.kind(m);
+		int to = PackedMove.to(m);
+		assert kind == Move.QUIT || (chips[player] & (1L << to)) != 0 : "no chip to undo " + m;
+		if (kind == Move.QUIT) {
+			return;
+		}
+		removeChip(to, player);
+		if (kind == Move.ADD) {
+			int[] side = owner(player);
+			hash ^= COUNT_KEYS[player][side[1]] ^ COUNT_KEYS[player][side[1] - 1];
+			side[1]--;
+		} else {
+			addChip(PackedMove.from(m), player);
+		}
+		setToMove(player);
+	}
+
+	/**
+	 *  addChip() puts a chip on an empty square, updating the bitboards, the hash and the
+	 *  connection counts. Only the four lines through the square can change: on each, the
+	 *  nearest chips on either side stop seeing each other and start seeing the new chip.
+	 *  @param sq is the square to put the chip on.
+	 *  @param player is the color of the chip.
+	**/
+	private void addChip(int sq, int player) {
+		updateConnections(sq, player, -1);
+		chips[player] |= 1L << sq;
+		occupied |= 1L << sq;
+		hash ^= SQUARE_KEYS[player][sq];
+	}
+
+	/**
+	 *  removeChip() takes a chip off a square, undoing what addChip() did.
+	 *  @param sq is the square to take the chip from.
+	 *  @param player is the color of the chip.
+	**/
+	private void removeChip(int sq, int player) {
+		chips[player] &= ~(1L << sq);
+		occupied &= ~(1L << sq);
+		hash ^= SQUARE_KEYS[player][sq];
+		updateConnections(sq, player, 1);
+	}
+
+	/**
+	 *  updateConnections() adjusts the connection counts for a chip appearing on or vanishing
+	 *  from an empty square. Connections are counted from both ends, so each pair of chips
+	 *  that can see each other adds 2.
+	 *  It also forgets the network status of every color whose connections change: always the
+	 *  chip's own color, and the other color only if the square lies between two of its chips.
+	 *  @param sq is the square, which must be empty in occupied.
+	 *  @param player is the color of the chip.
+	 *  @param sign is -1 if the chip appears, 1 if it vanishes.
+	**/
+	private void updateConnections(int sq, int player, int sign) {
+		for (int d = 0; d < 4; d++) {
+			int a = Bitboard.nearest(sq, d, occupied);
+			int b = Bitboard.nearest(sq, 7 - d, occupied);
+			int colorA = a < 0 ? 0 : colorOf(a);
+			int colorB = b < 0 ? 0 : colorOf(b);
+			if (colorA != 0 && colorA == colorB) {
+				connections[colorA] += 2 * sign;
+				networkStatus[colorA] = UNKNOWN;
 			}
-			board[m.x1][m.y1] = 0;
-		} else if (m. moveKind == Move.STEP) {
-			board[m.x2][m.y2] = board[m.x1][m.y1];
-			board[m.x1][m.y1] = 0;
+			if (colorA == player) {
+				connections[player] -= 2 * sign;
+			}
+			if (colorB == player) {
+				connections[player] -= 2 * sign;
+			}
+		}
+		networkStatus[player] = UNKNOWN;
+	}
+
+	/**
+	 *  colorOf() returns the color of the chip on an occupied square.
+	 *  @param sq is the square.
+	 *  @return BLACK or WHITE.
+	**/
+	private int colorOf(int sq) {
+		return (chips[BLACK] & (1L << sq)) != 0 ? BLACK : WHITE;
+	}
+
+	/**
+	 *  owner() returns the bookkeeping array (myPlayer or opponent) of a specified color.
+	 *  @param player is an integer representing the color of the player.
+	 *  @return myPlayer if player is this board's color; else, opponent.
+	**/
+	private int[] owner(int player) {
+		return player == myPlayer[0] ? myPlayer : opponent;
+	}
+
+	/**
+	 *  setToMove() records whose turn it is, keeping the side-to-move term of the hash in step.
+	 *  @param player is an integer representing the color of the player to move.
+	**/
+	private void setToMove(int player) {
+		if (player != toMove) {
+			hash ^= SIDE_KEY;
+			toMove = player;
+		}
+	}
+
+	/**
+	 *  getHash() returns the 64-bit Zobrist key of this position. Two boards holding the same
+	 *  chips, the same number of chips placed by each player and the same player to move have
+	 *  the same key. The key is updated incrementally by makeMove() and undoMove().
+	 *  @return the Zobrist key of this position.
+	**/
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 *  getHash() returns the Zobrist key this position would have with a specified player to
+	 *  move. The search uses it where a player passes by playing QUIT, which leaves the board
+	 *  and its side to move unchanged.
+	 *  @param player is an integer representing the color of the player to move.
+	 *  @return the Zobrist key of this position with player to move.
+	**/
+	public long getHash(int player) {
+		return player == toMove ? hash : hash ^ SIDE_KEY;
+	}
+
+	/**
+	 *  computeHash() recomputes the Zobrist key of this position from scratch. It is used to
+	 *  check the incremental key maintained by makeMove() and undoMove().
+	 *  @return the Zobrist key of this position.
+	**/
+	protected long computeHash() {
+		long key = COUNT_KEYS[myPlayer[0]][myPlayer[1]] ^ COUNT_KEYS[opponent[0]][opponent[1]];
+		for (int color = BLACK; color <= WHITE; color++) {
+			long pieces = chips[color];
+			while (pieces != 0) {
+				key ^= SQUARE_KEYS[color][Long.numberOfTrailingZeros(pieces)];
+				pieces &= pieces - 1;
+			}
+		}
+		if (toMove == BLACK) {
+			key ^= SIDE_KEY;
 		}
+		return key;
 	}
 
 	/**
@@ -337,36 +905,53 @@ public class GameBoard {
 	 *  @return array of type Move, which contains all valid moves.
 	**/
 	protected Move[] listMoves(int player){
-    DList my_list = new DList();
-   	Move quitMove = new Move();
-   	my_list.insertBack(quitMove);
-    if ((player == myPlayer[0] && myPlayer[1] < 10) || (player == opponent[0] && opponent[1] < 10)) {
-    	for (int i = 0; i < DIMENSION; i++){
-    		for (int j = 0; j < DIMENSION; j++){
-    			Move addMove = new Move(i, j);
-    			if (isValidMove(addMove, player)){
-    				my_list.insertBack(addMove);
-    			}
-    		}
-    	}
-    } else {
-    	for (int i = 0; i < DIMENSION; i++){
-    		for (int j = 0; j < DIMENSION; j++){
-    			for (int i2 = 0; i2 < DIMENSION; i2++){
-    				for (int j2 = 0; j2 < DIMENSION; j2++){
-    					Move stepMove = new Move(i,j,i2,j2);
-    					if (isValidMove(stepMove, player)){
-    						my_list.insertBack(stepMove);
-    					}
-    				}
-    			}
-    		}
-    	}
-    }
-    Move[] validMoves;
-   	validMoves = my_list.toMoveArray();
-   	return validMoves;
-  }
+		int[] packed = new int[MAXMOVES];
+		int count = listMoves(player, packed);
+		Move[] validMoves = new Move[count];
+		for (int i = 0; i < count; i++) {
+			validMoves[i] = PackedMove.toMove(packed[i]);
+		}
+		return validMoves;
+	}
+
+	/**
+	 *  listMoves() writes all valid moves that the player can make, packed as described in
+	 *  PackedMove, into a buffer supplied by the caller, so that no memory is allocated. The
+	 *  first move is always the quit move.
+	 *  The new squares are found a whole bitboard at a time: the empty squares the player may
+	 *  use, less Bitboard.clusterSquares() of the player's other chips (for a step move, all
+	 *  of them but the one that moves).
+	 *  @param player is an integer representing the player whose possible moves we are considering.
+	 *  @param moves is an array of at least MAXMOVES ints to write the moves into.
+	 *  @return the number of moves written.
+	**/
+	protected int listMoves(int player, int[] moves) {
+		int count = 0;
+		moves[count++] = PackedMove.QUIT;
+		long own = chips[player];
+		long targets = ~occupied & ~Bitboard.FORBIDDEN[player];
+		if (owner(player)[1] < 10) {
+			long open = targets & ~Bitboard.clusterSquares(own);
+			while (open != 0) {
+				int to = Long.numberOfTrailingZeros(open);
+				open &= open - 1;
+				moves[count++] = PackedMove.add(to);
+			}
+		} else {
+			long sources = own;
+			while (sources != 0) {
+				int from = Long.numberOfTrailingZeros(sources);
+				sources &= sources - 1;
+				long open = targets & ~Bitboard.clusterSquares(own & ~(1L << from));
+				while (open != 0) {
+					int to = Long.numberOfTrailingZeros(open);
+					open &= open - 1;
+					moves[count++] = PackedMove.step(from, to);
+				}
+			}
+		}
+		return count;
+	}
 
 	/**
 	 *  Implemented by zm
@@ -375,129 +960,102 @@ public class GameBoard {
 	 *  A network is valid if it satisfies the following:
 	 *	1) The network does not pass through the same chip twice.
 	 *  2) The network has 1 chip in each goal.
-	 *  3) A network has 6 or more connected chips. Connected chips are described
-	 *	in the findConnections() method description.
+	 *  3) A network has 6 or more connected chips. A chip is connected to another of the same
+	 *	color if it is the first chip met along a row, column or diagonal from it.
 	 *  4) Black's goal areas are squares 10, 20, 30, 40, 50, 60 and 17, 27, 37, 47, 57, 67.
 	 *	5) White's goal areas are squares 01, 02, 03, 04, 05, 06 and 71, 72, 73, 74, 75, 76.
+	 *  6) The network turns a corner at every chip: it never leaves a chip in the direction it
+	 *	came in from.
+	 *  The answer is remembered in networkStatus until a move changes a connection of the
+	 *  player, so calling this again for the same position costs nothing.
+	 *  The search is a depth-first search from each chip in the first goal, kept on an explicit
+	 *  stack (pathSquares holds the chips of the network so far, pathDirections the direction
+	 *  each was reached in and pathNext the next direction to try from it). Connections are
+	 *  found with the ray masks in Bitboard, and nothing is allocated. It gives up at once if
+	 *  either goal is empty or the player has fewer than 6 chips.
 	 *  Unusual conditions:
-	 *    If side is neither MachinePlayer.COMPUTER nor MachinePlayer.HUMAN,
-	 *          returns false.
+	 *    If player is neither BLACK nor WHITE, returns false.
 	 *    If this.gameboard squares contain illegal values, the behavior of this
 	 *          method is undefined (i.e., don't expect any reasonable behavior).
 	 *
-	 *  @param player is integer: MachinePlayer.COMPUTER or MachinePlayer.HUMAN
+	 *  @param player is an integer representing the color of the player: BLACK or WHITE.
 	 *  @return true if player has a winning network in this.gameboard; false otherwise.
 	**/
  	protected boolean hasValidNetwork(int player) {
- 		boolean[][] checked_chips = new boolean[DIMENSION][DIMENSION];
- 		DList startGoal = getgoalPieces(player, 0);
- 		DList endGoal = getgoalPieces(player, DIMENSION-1);
- 		int direction = -1;
- 		DListNode node = startGoal.front();
- 		while (node != null) {
- 			int x_coord = ((int[]) node.item)[0];
- 			int y_coord = ((int[]) node.item)[1];
- 			checked_chips[x_coord][y_coord] = true;
- 			DList network = new DList();
- 			network.insertFront(node.item);
- 			if (getNetwork(x_coord, y_coord, player, checked_chips,
- 					-1, startGoal, endGoal, network)) {
- 				return true;
- 			}
- 			network.remove(network.front());
- 			node = startGoal.next(node);
+ 		if (player != BLACK && player != WHITE) {
+ 			return false;
  		}
- 		return false;
+ 		if (networkStatus[player] == UNKNOWN) {
+ 			networkStatus[player] = findNetwork(player) ? NETWORK : NONETWORK;
+ 		}
+ 		return networkStatus[player] == NETWORK;
  	}
 
 	/**
-	 *  Implemented by zm
-	 *  getGoalPieces() returns a list of pieces of in the goal of a specified player.
-	 *  @param player is an integer specifying the color of the player.
-	 *  @param goal is an integer specifying which goal to get pieces: 0 for the starting goal. 7 
-	 *  (DIMENSION - 1) for the ending goal.
-	 *  @return a DList where each node.item is a 1x2 array. The first entry is the x-coordinate of 
-	 *  the piece in the goal. The second entry is the y-coordinate.
-	**/
- 	private DList getgoalPieces(int player, int goal) {
- 		DList goalPieces = new DList();
-	 	for (int i = 1; i < DIMENSION-1; i++){
-	 		if (player == BLACK) {
-	  		if (board[i][goal] == player) {
-	   			goalPieces.insertBack(new int[]{i, goal});
-	   		}
-	  	} else if (player == WHITE) {
-	  		if (board[goal][i] == player) {
-	  			goalPieces.insertBack(new int[]{goal, i});
-	  		}
-	  	}
-	  }
-	  return goalPieces;
+	 *  terminalStatus() tells which players have a network, so the search can check whether a
+	 *  position ends the game with one call.
+	 *  @return BLACK | WHITE if both players have a network, BLACK or WHITE if only that player
+	 *  has one, and 0 if neither does.
+	**/
+ 	protected int terminalStatus() {
+ 		int status = 0;
+ 		if (hasValidNetwork(BLACK)) {
+ 			status |= BLACK;
+ 		}
+ 		if (hasValidNetwork(WHITE)) {
+ 			status |= WHITE;
+ 		}
+ 		return status;
  	}
 
 	/**
-	 *  Implemented by zm
-	 *  getNetwork() gets the first valid network containing 6 or more pieces.
-	 *  @param x_coord and y_coord are the coordinates of the chip for which to search for 
-	 *  networks
-	 *  @param player specifies the player for whom to search for networks.
-	 *  @param checked_chips is an 8x8 array of booleans. Each cell is true if it has been check, 
-	 *  and false by default.
-	 *  @param int direction specifies the direction not to check, because a network must turn a 
-	 *  corner at each node of the network.
-	 *  @param startGoal and endGoal are DLists which are specify the chips in the starting goal 
-	 *  and ending goal respectively. Each node.item is a 1x2 array. The first entry is the 
-	 *  x-coordinate of the piece in the goal. The second entry is the y-coordinate.
-	 *  @param network is a DList containing the constructed network so far. Each node.item is a 
-	 *  1x2 array. The first entry is the x-coordinate of the piece in the goal. The second entry is 
-	 *  the y-coordinate.
-	 *  @return true if there is a valid network. else return false.
-	**/
- 	private boolean getNetwork(int x_coord, int y_coord, int player, boolean[][] checked_chips, int direction,
- 													 		DList startGoal, DList endGoal, DList network) {
-	 	if (inGoal(x_coord, y_coord, endGoal)) {
-	 		if (network.length() >= 6) {
-	 			return true;	 			
-	 		}
-	 		return false;
+	 *  findNetwork() runs the network search described in hasValidNetwork(), without using or
+	 *  updating networkStatus.
+	 *  @param player is an integer representing the color of the player: BLACK or WHITE.
+	 *  @return true if player has a winning network in this.gameboard; false otherwise.
+	**/
+ 	private boolean findNetwork(int player) {
+ 		long own = chips[player];
+ 		long startGoal = own & Bitboard.GOALS[player][0];
+ 		long endGoal = own & Bitboard.GOALS[player][1];
+ 		if (startGoal == 0 || endGoal == 0 || Long.bitCount(own) < 6) {
+ 			return false;
  		}
-	 	checked_chips[x_coord][y_coord] = true;
- 		int[][] connections = findConnections(x_coord, y_coord);
- 		int count = 0;
- 		for (int i = 0; i < connections.length; i++) {
- 			if (connections[i] != null) {
- 				int x_coord1 = connections[i][0];
- 				int y_coord1 = connections[i][1];
- 				if (inGoal(x_coord1, y_coord1, startGoal) || i == direction || checked_chips[x_coord1][y_coord1]) {
+ 		long starts = startGoal;
+ 		while (starts != 0) {
+ 			int top = 0;
+ 			pathSquares[0] = Long.numberOfTrailingZeros(starts);
+ 			pathDirections[0] = -1;
+ 			pathNext[0] = 0;
+ 			starts &= starts - 1;
+ 			long visited = startGoal;
+ 			while (top >= 0) {
+ 				int sq = pathSquares[top];
+ 				int d = pathNext[top]++;
+ 				if (d == 8) {
+ 					visited &= ~(1L << sq) | startGoal;
+ 					top--;
  					continue;
  				}
-	 			network.insertBack(connections[i]);
-	 	 		if (getNetwork(x_coord1, y_coord1, player, checked_chips, i, startGoal, endGoal, network)) {
-	 	 			return true;
-	 	 		}
-	 	 		checked_chips[x_coord1][y_coord1] = false;
-	 			network.remove(network.back());
- 			}
- 		}
- 		return false;
- 	}
-
-	/**
-	 *  Implemented by zm
-	 *  inGoal() determines if a chip is in a goal area.
-	 *  @param x and y are coordinates of the chip to check.
-	 *  @param goalPieces is a DList of the chips in a specified goal.  Each node.item is a 1x2  
-	 *  array. The first entry is the x-coordinate of the piece in the goal. The second entry is the 
-	 *  y-coordinate.
-	 *  @return true if the chip is in the goal. false otherwise.
-	**/
- 	private boolean inGoal(int x, int y, DList goalPieces) {
- 		DListNode node = goalPieces.front();
- 		while (node != null) {
- 			if (x == ((int[]) node.item)[0] && y == ((int[]) node.item)[1]) {
-				return true;
+ 				if (d == pathDirections[top]) {
+ 					continue;
+ 				}
+ 				int next = Bitboard.nearest(sq, d, occupied);
+ 				if (next < 0 || (own & (1L << next)) == 0 || (visited & (1L << next)) != 0) {
+ 					continue;
+ 				}
+ 				if ((endGoal & (1L << next)) != 0) {
+ 					if (top + 2 >= 6) {
+ 						return true;
+ 					}
+ 					continue;
+ 				}
+ 				top++;
+ 				pathSquares[top] = next;
+ 				pathDirections[top] = d;
+ 				pathNext[top] = 0;
+ 				visited |= 1L << next;
  			}
- 			node = goalPieces.next(node);
  		}
  		return false;
  	}
@@ -534,9 +1092,6 @@ public class GameBoard {
  		thisone.makeMove(new Move(3, 5), WHITE);
  		thisone.makeMove(new Move(6, 5), WHITE);
  		thisone.makeMove(new Move(7, 2), WHITE);
- 		DList goal = thisone.getgoalPieces(WHITE, 7);
- 		// boolean z = thisone.inGoal(7, 2, goal);
- 		// System.out.println(z);
  		System.out.println(thisone.hasValidNetwork(WHITE));
  		thisone = new GameBoard(BLACK);
  		thisone.makeMove(new Move(1, 0), BLACK);
@@ -550,6 +1105,12 @@ public class GameBoard {
  		thisone.makeMove(new Move(4, 6), WHITE);
  		thisone.makeMove(new Move(7, 3), WHITE);
  		System.out.println(thisone.hasValidNetwork(WHITE));
+ 		long before = thisone.getHash();
+ 		thisone.makeMove(new Move(3, 0), BLACK);
+ 		thisone.undoMove(new Move(3, 0));
+ 		System.out.println(thisone.getHash() == before && before == thisone.computeHash());
+ 		System.out.println(thisone.connections[WHITE] == thisone.connectionCount(WHITE)
+ 				&& thisone.connections[BLACK] == thisone.connectionCount(BLACK));
 
  	}
 
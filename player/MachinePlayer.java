@@ -2,25 +2,56 @@
 
 package player;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  *  An implementation of an automatic Network player.  Keeps track of moves
  *  made by both players.  Can select a move for itself.
  **/
 public class MachinePlayer extends Player {
 
+  // Ways of using more than one thread; see setThreads().
+  public final static int SPLITROOT = 0;
+  public final static int LAZYSMP = 1;
+  public final static int YBWC = 2;
+
   private final static int SEARCHDEPTH = 2;
-  private final static boolean COMPUTER = true;
-  private final static boolean HUMAN = false;
+  private final static int TABLESIZE = 16;
+  private final static int ASPIRATION = 4;
+  // The network solver gets 1 / SOLVERSHARE of the time limit, or SOLVERTIME
+  // milliseconds if there is none.
+  private final static int SOLVERSHARE = 4;
+  private final static long SOLVERTIME = 5;
   private GameBoard board;
   private int searchDepth;
   private int color;
+  private long timeLimit;
+  private int tableSize;
+  private TranspositionTable table;
+  private Searcher searcher;
+  private Searcher[] helpers;
+  private int parallelMode;
+  private boolean principalVariation;
+  private YoungBrothers brothers;
+  private ForkJoinPool pool;
+  private int[] rootMoves;
+  private int rootBest;
+  private int rootSearched;
+  private boolean aborted;
+  private OpeningBook book;
+  private NetworkSolver solver;
+  private boolean pondering;
+  private Thread ponderThread;
+  private Searcher ponderer;
+  private int ponderMove;
+  private volatile int ponderBest;
 
   // Creates a machine player with the given color.  Color is either 0 (black)
   // or 1 (white).  (White has the first move.)
   public MachinePlayer(int color) {
-    board = new GameBoard(color + 1);
-    this.color = color;
-    this.searchDepth = SEARCHDEPTH;
+    this(color, SEARCHDEPTH);
   }
 
   // Creates a machine player with the given color and search depth.  Color is
@@ -29,24 +60,547 @@ public class MachinePlayer extends Player {
     board = new GameBoard(color + 1);
     this.color = color;
     this.searchDepth = searchDepth;
+    tableSize = TABLESIZE;
+    table = new TranspositionTable(tableSize);
+    searcher = new Searcher(board, color, table, searchDepth);
+    helpers = new Searcher[0];
+    rootMoves = new int[GameBoard.MAXMOVES];
+    book = OpeningBook.standard();
+    solver = new NetworkSolver(board, NetworkSolver.NODELIMIT);
+  }
+
+  // Creates a machine player with the given color that searches with iterative
+  // deepening: depth 1, 2, 3... up to searchDepth, stopping when timeLimit
+  // milliseconds have passed since chooseMove() was called.  Color is either 0
+  // (black) or 1 (white).  (White has the first move.)
+  public MachinePlayer(int color, int searchDepth, long timeLimit) {
+    this(color, searchDepth);
+    this.timeLimit = timeLimit;
+  }
+
+  // Sets the memory budget of the transposition table, in megabytes, and
+  // empties it.  The table keeps search results across moves within a game.
+  public void setTableSize(int megabytes) {
+    stopPondering();
+    tableSize = megabytes;
+    table = new TranspositionTable(tableSize);
+    searcher.setTable(table);
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].setTable(table);
+    }
+    if (brothers != null) {
+      brothers.setTable(table);
+    }
+  }
+
+  // Turns principal variation search with aspiration windows on or off.  With
+  // it on, each node searches its first move with the full window and the
+  // rest with null windows, and each iterative deepening search after the
+  // first starts with a narrow window around the previous score.  It is off
+  // by default.
+  public void setPrincipalVariation(boolean on) {
+    principalVariation = on;
+    searcher.setPrincipalVariation(on);
+    copySettings();
+  }
+
+  // Turns the threat search at the horizon on or off.  With it on, the search
+  // does not stop dead at searchDepth: past it, it goes on searching moves
+  // that complete a network or stop one the opponent threatens to complete
+  // next move, until neither side has such a threat.  It is off by default.
+  public void setQuiescence(boolean on) {
+    searcher.setQuiescence(on);
+    copySettings();
+  }
+
+  // Turns late move reductions on or off.  With them on, step moves that come
+  // late in the move order and have rarely caused a cutoff are searched a ply
+  // shallower first, and again at full depth only if that shows they might be
+  // the best.  It is off by default.
+  public void setLateMoveReductions(boolean on) {
+    searcher.setLateMoveReductions(on);
+    copySettings();
+  }
+
+  // Turns futility pruning on or off.  With it on, a position one ply above
+  // searchDepth that scores too far below the best already found is not
+  // searched: no single move could change the board's score enough to
+  // matter.  It is never pruned if a move completes a network, and it has no
+  // effect with setQuiescence() on.  It is off by default.
+  public void setFutilityPruning(boolean on) {
+    searcher.setFutilityPruning(on);
+    copySettings();
+  }
+
+  // Turns the opening book on or off.  With it on (the default), chooseMove()
+  // plays the book move without searching whenever the position is in the
+  // book; see OpeningBook.
+  public void setOpeningBook(boolean on) {
+    book = on ? OpeningBook.standard() : null;
+  }
+
+  // Turns the network solver on or off.  With it on (the default), chooseMove()
+  // first runs a short mate search for a network "this" player can force
+  // within a few moves, and plays the winning move without searching if it
+  // finds one; see NetworkSolver.  The solver only starts when a quick scan
+  // finds a move that threatens to complete a network, and it gives up after
+  // a quarter of the time limit (5 milliseconds without one), leaving the
+  // rest to the search.
+  public void setSolver(boolean on) {
+    solver = on ? new NetworkSolver(board, NetworkSolver.NODELIMIT) : null;
+  }
+
+  // Turns pondering on or off.  With it on, after each chooseMove() a
+  // background thread searches while the opponent thinks.  If the table holds
+  // a best reply for the opponent, it searches "this" player's next move as
+  // if that reply had been played; if the reply is then played, the next
+  // chooseMove() starts from the move found and a warm table.  Otherwise it
+  // searches all of the opponent's replies.  Either way the results go into
+  // the shared transposition table.  The thread is stopped as soon as
+  // opponentMove(), forceMove() or chooseMove() is called.  It is off by
+  // default.
+  public void setPondering(boolean on) {
+    stopPondering();
+    pondering = on;
+  }
+
+  // Sets the number of threads used to choose a move, searching in LAZYSMP
+  // mode.  With one thread (the default) the search is sequential and its
+  // result does not depend on timing.
+  public void setThreads(int threads) {
+    setThreads(threads, LAZYSMP);
+  }
+
+  // Sets the number of threads used to choose a move and how they share the
+  // work.  Every thread searches its own copy of the board, and all of them
+  // share the transposition table.  In SPLITROOT mode the root moves are
+  // shared out among the threads.  In LAZYSMP mode the extra threads run
+  // their own iterative deepening searches, half of them starting one ply
+  // deeper than the others, and help only by filling the table; the move
+  // played is the one found by the main search.  In YBWC mode every node
+  // deep enough is split among the threads once its first move has been
+  // searched; see YoungBrothers.
+  public void setThreads(int threads, int mode) {
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+    parallelMode = mode;
+    brothers = null;
+    helpers = new Searcher[0];
+    if (threads > 1 && mode == YBWC) {
+      pool = new ForkJoinPool(threads);
+      brothers = new YoungBrothers(pool, color, table, searchDepth);
+    } else if (threads > 1) {
+      helpers = new Searcher[threads - 1];
+      for (int i = 0; i < helpers.length; i++) {
+        helpers[i] = new Searcher(new GameBoard(color + 1), color, table, searchDepth);
+      }
+      pool = new ForkJoinPool(helpers.length);
+    }
+    copySettings();
+    searcher.setBrothers(brothers);
+  }
+
+  /**
+   *  copySettings() gives the helper searchers and the young brothers the
+   *  search settings of the main searcher, after one of them has changed.
+  **/
+  private void copySettings() {
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].copySettings(searcher);
+    }
+    if (brothers != null) {
+      brothers.copySettings(searcher);
+    }
   }
 
   // Returns a new move by "this" player.  Internally records the move (updates
   // the internal game board) as a move by "this" player.
   public Move chooseMove() {
-    BestMove best_move = bestMove(searchDepth, COMPUTER, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
-    board.makeMove(best_move.move, color + 1);
-    return best_move.move;
+    stopPondering();
+    if (book != null) {
+      int move = book.probe(board.getHash(color + 1));
+      if (move != PackedMove.QUIT && board.isValidMove(move, color + 1)) {
+        return playMove(move);
+      }
+    }
+    long start = System.currentTimeMillis();
+    long deadline = timeLimit > 0 ? start + timeLimit : 0;
+    if (solver != null && solver.threatens(color + 1)) {
+      long share = timeLimit > 0 ? timeLimit / SOLVERSHARE : SOLVERTIME;
+      int move = solver.solve(color + 1, start + Math.max(share, 1));
+      if (move != PackedMove.QUIT) {
+        return playMove(move);
+      }
+    }
+    table.newSearch();
+    searcher.prepare(deadline);
+    searcher.rootHint = ponderBest;
+    ponderBest = PackedMove.QUIT;
+    GameBoard.Snapshot position = helpers.length > 0 ? board.snapshot() : null;
+    for (int i = 0; i < helpers.length; i++) {
+      helpers[i].setPosition(position);
+      helpers[i].prepare(deadline);
+    }
+    if (brothers != null) {
+      brothers.prepare(deadline);
+    }
+    HelperSearch[] lazy = null;
+    if (parallelMode == LAZYSMP && helpers.length > 0) {
+      lazy = startHelpers();
+    }
+    int best_move;
+    if (timeLimit > 0) {
+      best_move = iterativeDeepening();
+    } else {
+      searchRoot(searchDepth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+      best_move = rootBest;
+    }
+    if (lazy != null) {
+      stopHelpers(lazy);
+    }
+    board.applyMove(best_move, color + 1);
+    if (pondering) {
+      startPondering();
+    }
+    return PackedMove.toMove(best_move);
   } 
 
+  /**
+   *  playMove() plays a move chosen without a search, such as a book move.
+   *  @param move is the packed move, which must be valid.
+   *  @return the move, unpacked.
+   **/
+  private Move playMove(int move) {
+    board.applyMove(move, color + 1);
+    ponderBest = PackedMove.QUIT;
+    if (pondering) {
+      startPondering();
+    }
+    return PackedMove.toMove(move);
+  }
+
+  /**
+   *  startPondering() starts a background search for setPondering(). It guesses the
+   *  opponent's reply from the transposition table; if there is a valid guess, it searches
+   *  "this" player's answer to it, and if not, it searches the opponent's replies.
+  **/
+  private void startPondering() {
+    int opponent = GameBoard.opponentOf(color + 1);
+    GameBoard copy = new GameBoard(board);
+    ponderMove = TranspositionTable.move(table.probe(board.getHash(opponent)));
+    if (ponderMove != PackedMove.QUIT && board.isValidMove(ponderMove, opponent)) {
+      copy.applyMove(ponderMove, opponent);
+      ponderer = new Searcher(copy, color, table, searchDepth);
+    } else {
+      ponderMove = PackedMove.QUIT;
+      ponderer = new Searcher(copy, opponent - 1, table, searchDepth);
+    }
+    ponderer.copySettings(searcher);
+    ponderer.prepare(0);
+    ponderThread = new Thread(new Ponder(ponderer, ponderMove != PackedMove.QUIT));
+    ponderThread.setDaemon(true);
+    ponderThread.start();
+  }
+
+  /**
+   *  stopPondering() stops the background search started by startPondering(), if any, and
+   *  waits for it to finish.
+  **/
+  private void stopPondering() {
+    if (ponderThread == null) {
+      return;
+    }
+    ponderer.stop();
+    try {
+      ponderThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    ponderThread = null;
+    ponderer = null;
+  }
+
+  /**
+   *  The background search of startPondering(): iterative deepening up to searchDepth,
+   *  until stopped. When it is searching "this" player's answer to the guessed reply, the
+   *  best move of each finished depth is kept in ponderBest.
+   **/
+  private class Ponder implements Runnable {
+
+    private final Searcher ponderer;
+    private final boolean answer;
+
+    Ponder(Searcher ponderer, boolean answer) {
+      this.ponderer = ponderer;
+      this.answer = answer;
+    }
+
+    public void run() {
+      for (int depth = 1; depth <= searchDepth; depth++) {
+        ponderer.search(depth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+        if (ponderer.aborted) {
+          return;
+        }
+        ponderer.rootHint = ponderer.rootBest;
+        if (answer) {
+          ponderBest = ponderer.rootBest;
+        }
+      }
+    }
+
+  }
+
+  /**
+   *  iterativeDeepening() searches to depth 1, 2, 3... up to searchDepth until the time
+   *  limit passes, and returns the best move of the deepest search that finished. Depth 1
+   *  always finishes. Each search tries the previous one's best move first, so if the time
+   *  runs out after that move has been searched, any move found to beat it is also safe to
+   *  play and is returned instead.
+   *  The search stops early once it finds a network for either player.
+   *  With principal variation search on, each search after the first tries a window of
+   *  ASPIRATION either side of the previous score, and searches again with the full window
+   *  if the score falls outside it.
+   *  @return the best move found, packed as described in PackedMove.
+  **/
+  private int iterativeDeepening() {
+    int best = PackedMove.QUIT;
+    int score = 0;
+    for (int depth = 1; depth <= searchDepth; depth++) {
+      if (principalVariation && depth > 1 && parallelMode != SPLITROOT) {
+        int alpha = score - ASPIRATION;
+        int beta = score + ASPIRATION;
+        score = searchRoot(depth, alpha, beta);
+        if (!aborted && (score <= alpha || score >= beta)) {
+          score = searchRoot(depth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+        }
+      } else {
+        score = searchRoot(depth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+      }
+      if (aborted) {
+        if (rootSearched > 0) {
+          best = rootBest;
+        }
+        break;
+      }
+      best = rootBest;
+      searcher.rootHint = best;
+      if (score >= GameBoard.NETWORKSCORE || score <= -GameBoard.NETWORKSCORE) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  /**
+   *  searchRoot() searches the board to a given depth, on one thread or, in SPLITROOT
+   *  mode with helpers set up, on several. It leaves the best move in rootBest, the number
+   *  of root moves searched to the end in rootSearched, and whether the time ran out in
+   *  aborted.
+   *  @param depth is the depth to search.
+   *  @param alpha and beta are the bounds of the search window. SPLITROOT mode always
+   *  searches with the full window.
+   *  @return the score of the best move.
+  **/
+  private int searchRoot(int depth, int alpha, int beta) {
+    if (parallelMode == SPLITROOT && helpers.length > 0) {
+      return splitRoot(depth);
+    }
+    int score = searcher.search(depth, alpha, beta);
+    rootBest = searcher.rootBest;
+    rootSearched = searcher.rootSearched;
+    aborted = searcher.aborted;
+    return score;
+  }
+
+  /**
+   *  splitRoot() searches the board to a given depth on several threads. The first root
+   *  move (the likeliest best) is searched alone to get a score for the others to beat.
+   *  Then each thread repeatedly takes the next unsearched root move and searches it with
+   *  the best score found so far as its alpha bound, so the bound tightens as threads
+   *  report better moves. The calling thread takes part, using the main searcher.
+   *  @param depth is the depth to search.
+   *  @return the score of the best move.
+  **/
+  private int splitRoot(int depth) {
+    int count = searcher.rootMoves(rootMoves);
+    int score = searcher.searchMove(rootMoves[0], depth, GameBoard.MINBOARDSCORE,
+                                    GameBoard.MAXBOARDSCORE);
+    rootBest = rootMoves[0];
+    rootSearched = 0;
+    aborted = searcher.aborted;
+    if (aborted) {
+      return score;
+    }
+    RootSplit split = new RootSplit(rootMoves, count, depth, score);
+    RootWorker[] workers = new RootWorker[helpers.length + 1];
+    workers[0] = new RootWorker(split, searcher);
+    for (int i = 1; i < workers.length; i++) {
+      workers[i] = new RootWorker(split, helpers[i - 1]);
+      pool.execute(workers[i]);
+    }
+    workers[0].invoke();
+    for (int i = 1; i < workers.length; i++) {
+      workers[i].join();
+    }
+    rootBest = split.best;
+    rootSearched = split.searched;
+    aborted = split.aborted;
+    return split.alpha.get();
+  }
+
+  /**
+   *  startHelpers() starts every helper searcher on an iterative deepening search of its own
+   *  copy of the board, for LAZYSMP mode. Helpers with an even index start at depth 2, the
+   *  others at depth 1, so the threads are seldom working on the same depth at once.
+   *  @return the running searches.
+  **/
+  private HelperSearch[] startHelpers() {
+    HelperSearch[] lazy = new HelperSearch[helpers.length];
+    for (int i = 0; i < helpers.length; i++) {
+      lazy[i] = new HelperSearch(helpers[i], Math.min(2 - (i & 1), searchDepth), searchDepth);
+      pool.execute(lazy[i]);
+    }
+    return lazy;
+  }
+
+  /**
+   *  stopHelpers() stops the helper searches started by startHelpers() and waits for them.
+   *  @param lazy is the array returned by startHelpers().
+  **/
+  private void stopHelpers(HelperSearch[] lazy) {
+    for (int i = 0; i < lazy.length; i++) {
+      helpers[i].stop();
+    }
+    for (int i = 0; i < lazy.length; i++) {
+      lazy[i].join();
+    }
+  }
+
+  /**
+   *  nodeCount() returns the number of positions searched by all threads during the last
+   *  chooseMove().
+  **/
+  long nodeCount() {
+    long nodes = searcher.nodes();
+    for (int i = 0; i < helpers.length; i++) {
+      nodes += helpers[i].nodes();
+    }
+    if (brothers != null) {
+      nodes += brothers.nodes();
+    }
+    return nodes;
+  }
+
+  /**
+   *  The state shared by the threads of one splitRoot() search: the root moves, the next
+   *  one to hand out, and the best move and score found so far.
+   **/
+  private static class RootSplit {
+
+    final int[] moves;
+    final int count;
+    final int depth;
+    final AtomicInteger next;
+    final AtomicInteger alpha;
+    int best;
+    int searched;
+    volatile boolean aborted;
+
+    RootSplit(int[] moves, int count, int depth, int firstScore) {
+      this.moves = moves;
+      this.count = count;
+      this.depth = depth;
+      next = new AtomicInteger(1);
+      alpha = new AtomicInteger(firstScore);
+      best = moves[0];
+      searched = 1;
+    }
+
+    // Records the score of the root move at index i, searched to the end.
+    synchronized void record(int i, int score) {
+      searched++;
+      if (score > alpha.get()) {
+        alpha.set(score);
+        best = moves[i];
+      }
+    }
+
+  }
+
+  /**
+   *  A task that searches root moves of a RootSplit with one Searcher until none are left
+   *  or the time runs out.
+   **/
+  private static class RootWorker extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final RootSplit split;
+    private final Searcher searcher;
+
+    RootWorker(RootSplit split, Searcher searcher) {
+      this.split = split;
+      this.searcher = searcher;
+    }
+
+    protected void compute() {
+      int i = split.next.getAndIncrement();
+      while (i < split.count && !split.aborted) {
+        int score = searcher.searchMove(split.moves[i], split.depth, split.alpha.get(),
+                                        GameBoard.MAXBOARDSCORE);
+        if (searcher.aborted) {
+          split.aborted = true;
+          return;
+        }
+        split.record(i, score);
+        i = split.next.getAndIncrement();
+      }
+    }
+
+  }
+
+  /**
+   *  A task that runs a helper's iterative deepening search for LAZYSMP mode, until it
+   *  reaches the deepest depth or is stopped.
+   **/
+  private static class HelperSearch extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final Searcher searcher;
+    private final int start;
+    private final int end;
+
+    HelperSearch(Searcher searcher, int start, int end) {
+      this.searcher = searcher;
+      this.start = start;
+      this.end = end;
+    }
+
+    protected void compute() {
+      for (int depth = start; depth <= end; depth++) {
+        searcher.search(depth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+        if (searcher.aborted) {
+          return;
+        }
+        searcher.rootHint = searcher.rootBest;
+      }
+    }
+
+  }
+
   // If the Move m is legal, records the move as a move by the opponent
   // (updates the internal game board) and returns true.  If the move is
   // illegal, returns false without modifying the internal state of "this"
   // player.  This method allows your opponents to inform you of their moves.
 
   public boolean opponentMove(Move m) {
+    stopPondering();
 	  if (board.isValidMove(m, (1 - this.color) + 1)) {
-	    board.makeMove(m, (1 - this.color) + 1);
+      if (PackedMove.fromMove(m) != ponderMove) {
+        ponderBest = PackedMove.QUIT;
+      }
+	    board.applyMove(PackedMove.fromMove(m), (1 - this.color) + 1);
 	    return true;
 	  }
 	  return false;
@@ -58,101 +612,15 @@ public class MachinePlayer extends Player {
   // player.  This method is used to help set up "Network problems" for your
   // player to solve.
   public boolean forceMove(Move m) {
+    stopPondering();
+    ponderBest = PackedMove.QUIT;
     if (board.isValidMove(m, color + 1)) {
-      board.makeMove(m, color + 1);
+      board.applyMove(PackedMove.fromMove(m), color + 1);
       return true;
     }
     return false;
   }
 
-  /**
-   *  Implemented by vh
-   *  minimaxbestMove() performs a minimax tree search to determine the best move to 
-   *  make, given an array of valid moves from 
-   *  listMoves(). 
-   *  @param boolean side, which represents the machine player using the mini-max search
-   *  @param int depth, searchDepth value for the player
-   *  @param int player, integer representing the color of the Machine player
-   *  @param int opponent, integer representing the color of the Machine player's opponent
-   *  @return move is BestMove that will maximize the increase in board score.
-  **/
-  private BestMove minimaxBestMove(int depth, boolean side){
-    BestMove my_bestMove = new BestMove();
-    BestMove reply;
-    if (depth == 0 || board.hasValidNetwork(color + 1) || board.hasValidNetwork(2 - color)) {
-      my_bestMove.score = board.evalBoard(searchDepth - depth);
-      return my_bestMove;
-    }
-    int player;
-    if (side == COMPUTER) {
-      my_bestMove.score = GameBoard.MINBOARDSCORE;
-      player = this.color;
-    } else {
-      my_bestMove.score = GameBoard.MAXBOARDSCORE;
-      player = 1 - this.color;
-    }
-    Move[] my_moves = board.listMoves(player + 1);
-    my_bestMove.move = my_moves[0];
-    for (int i = 0; i < my_moves.length; i++) {
-      board.makeMove(my_moves[i], player + 1);
-      reply = minimaxBestMove(depth - 1, !side);
-      board.undoMove(my_moves[i]);
-      if ((side == COMPUTER && reply.score > my_bestMove.score) || (side == HUMAN && reply.score < my_bestMove.score)) {
-        my_bestMove.move = my_moves[i];
-        my_bestMove.score = reply.score;
-      }
-    }
-    return my_bestMove;
-  }
-  
-  /**
-   *  Implemented by vh
-   *  bestMove() performs alpha-beta pruning for the minimax tree search.
-   *  @param side is a boolean that indicates  whether the side playing is "this" 
-   *  MachinePlayer
-   *  @param depth is an Integer that determines the searchDepth of "this" MachinePlayer
-   *  @param alpha is an Integer, which gives the minimum score our        
-   *  machinePlayer would get from a specific move
-   *  @param beta is an Integer, which is the maximum score of the opponent
-   *  @return move is a BestMove that will maximize the increase in board score
-  **/
-  private BestMove bestMove(int depth, boolean side, int alpha, int beta){
-  	BestMove my_bestMove = new BestMove();
-    BestMove reply;
-    if (depth == 0 || board.hasValidNetwork(color + 1) || board.hasValidNetwork(2 - color)) {
-      my_bestMove.score = board.evalBoard(searchDepth - depth);
-      return my_bestMove;
-    }
-    int player;
-    if (side == COMPUTER) {
-      my_bestMove.score = alpha;
-      player = this.color;
-    } else {
-      my_bestMove.score = beta;
-      player = 1 - this.color;
-    }
-    Move[] my_moves = board.listMoves(player + 1);
-    my_bestMove.move = my_moves[0];
-  	for (int i = 0; i < my_moves.length; i++) {
-  		board.makeMove(my_moves[i], player + 1);
-  		reply = bestMove(depth - 1, !side, alpha, beta);
-      board.undoMove(my_moves[i]);
-      if ((side == COMPUTER) && (reply.score > my_bestMove.score)) {
-  			my_bestMove.move = my_moves[i];
-        my_bestMove.score = reply.score;
-        alpha = reply.score;
-  	  } else if ((side == HUMAN) && (reply.score < my_bestMove.score)) {
-        my_bestMove.move = my_moves[i];
-        my_bestMove.score = reply.score;
-        beta = reply.score;
-      }
-      if (alpha >= beta) {
-        return my_bestMove;
-      }
-  	}
-  	return my_bestMove;
-  }
-
   public static void main(String[] args) {
     MachinePlayer thisone = new MachinePlayer(1);
     thisone.board.makeMove(new Move(1, 1), GameBoard.BLACK);
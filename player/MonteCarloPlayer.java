@@ -0,0 +1,363 @@
+/* MonteCarloPlayer.java */
+
+package player;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  An automatic Network player that chooses moves by Monte Carlo tree search
+ *  (UCT) instead of alpha-beta.  Each iteration walks down the tree, picking
+ *  children by MonteCarloTree.select(), adds the children of the node it
+ *  stops at once that node has been visited EXPANDVISITS times, plays random
+ *  moves from there to the end of the game, and scores the result along the
+ *  path.  The move played is the root child visited most.
+ *
+ *  The search runs until a time limit passes or a number of playouts have
+ *  been made, whichever comes first.  The trees are kept between moves: once
+ *  the opponent has answered, the part of each tree below the two moves
+ *  played becomes the tree the next search starts from.  It can use several threads, either
+ *  each growing its own tree (ROOTPARALLEL, with visits summed at the end)
+ *  or all sharing one tree (TREEPARALLEL, using virtual loss).
+ **/
+public class MonteCarloPlayer extends Player {
+
+  // Ways of using more than one thread; see setThreads().
+  public final static int ROOTPARALLEL = 0;
+  public final static int TREEPARALLEL = 1;
+
+  private final static long TIMELIMIT = 1000;
+  private final static int TREESIZE = 1 << 18;
+  private final static int EXPANDVISITS = 2;
+  private final static int PLAYOUTLIMIT = 80;
+  private final static int MAXPATH = 128;
+  private final static long SEED = 0x6D637473L;
+
+  private GameBoard board;
+  private int color;
+  private long timeLimit;
+  private int playouts;
+  private int treeSize;
+  private int threads;
+  private int parallelMode;
+  private ForkJoinPool pool;
+  // The trees of the last search, and in each the node for the current
+  // position, or -1 if it is not in that tree.  trees is null if there is
+  // nothing to carry over.  rootKey is the Zobrist key, with its player to
+  // move, of the position the roots stand for; the trees are only reused
+  // when it is the position chooseMove() is asked about.
+  private MonteCarloTree[] trees;
+  private int[] roots;
+  private long rootKey;
+
+  // Creates a machine player with the given color that thinks for one second
+  // per move.  Color is either 0 (black) or 1 (white).  (White has the first
+  // move.)
+  public MonteCarloPlayer(int color) {
+    this(color, TIMELIMIT, 0);
+  }
+
+  // Creates a machine player with the given color that stops searching when
+  // timeLimit milliseconds have passed or playouts playouts have been made.
+  // Either limit may be 0 for none; if both are, the time limit is one
+  // second.  Color is either 0 (black) or 1 (white).  (White has the first
+  // move.)
+  public MonteCarloPlayer(int color, long timeLimit, int playouts) {
+    board = new GameBoard(color + 1);
+    this.color = color;
+    this.timeLimit = timeLimit <= 0 && playouts <= 0 ? TIMELIMIT : timeLimit;
+    this.playouts = playouts;
+    treeSize = TREESIZE;
+    threads = 1;
+  }
+
+  // Sets the most nodes a search tree may hold.  Each tree takes about 20
+  // bytes per node; in ROOTPARALLEL mode every thread has its own.
+  public void setTreeSize(int nodes) {
+    treeSize = Math.max(nodes, 1);
+    trees = null;
+  }
+
+  // Sets the number of threads used to choose a move and how they share the
+  // work: ROOTPARALLEL or TREEPARALLEL.  With one thread (the default) and no
+  // time limit the choice of move does not depend on timing.
+  public void setThreads(int threads, int mode) {
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+    this.threads = Math.max(threads, 1);
+    parallelMode = mode;
+    trees = null;
+    if (this.threads > 1) {
+      pool = new ForkJoinPool(this.threads);
+    }
+  }
+
+  // Returns a new move by "this" player.  Internally records the move (updates
+  // the internal game board) as a move by "this" player.
+  public Move chooseMove() {
+    long deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : 0;
+    AtomicInteger budget = new AtomicInteger(playouts > 0 ? playouts : Integer.MAX_VALUE);
+    int[] moves = new int[GameBoard.MAXMOVES];
+    int count = board.listMoves(color + 1, moves);
+    MonteCarloTree[] old = rootKey == board.getHash(color + 1) ? trees : null;
+    trees = new MonteCarloTree[parallelMode == ROOTPARALLEL ? threads : 1];
+    for (int i = 0; i < trees.length; i++) {
+      if (old != null && roots[i] >= 0) {
+        trees[i] = old[i].subtree(roots[i], treeSize);
+      } else {
+        trees[i] = new MonteCarloTree(treeSize);
+      }
+      trees[i].expand(0, moves, count);
+    }
+    GameBoard.Snapshot position = board.snapshot();
+    Playouts[] workers = new Playouts[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Playouts(trees[i % trees.length], position, color + 1, deadline, budget,
+                                SEED + i);
+    }
+    if (threads == 1) {
+      workers[0].compute();
+    } else {
+      for (int i = 1; i < threads; i++) {
+        pool.execute(workers[i]);
+      }
+      workers[0].invoke();
+      for (int i = 1; i < threads; i++) {
+        workers[i].join();
+      }
+    }
+    int best_move = mostVisited(trees);
+    roots = new int[trees.length];
+    for (int i = 0; i < trees.length; i++) {
+      roots[i] = trees[i].child(0, best_move);
+    }
+    board.applyMove(best_move, color + 1);
+    rootKey = board.getHash((1 - color) + 1);
+    return PackedMove.toMove(best_move);
+  }
+
+  /**
+   *  mostVisited() returns the root move visited most, summing the visits of the same move
+   *  over all the trees.
+   *  @param trees are the trees searched, whose roots have the same children.
+   *  @return the packed move; QUIT if the root has no children.
+  **/
+  private static int mostVisited(MonteCarloTree[] trees) {
+    int[] total = new int[PackedMove.SIZE];
+    int best = PackedMove.QUIT;
+    int bestVisits = -1;
+    for (int i = 0; i < trees.length; i++) {
+      int first = trees[i].firstChild(0);
+      for (int child = first; child < first + trees[i].childCount(0); child++) {
+        int move = trees[i].move(child);
+        total[move] += trees[i].visits(child);
+      }
+    }
+    int first = trees[0].firstChild(0);
+    for (int child = first; child < first + trees[0].childCount(0); child++) {
+      int move = trees[0].move(child);
+      if (total[move] > bestVisits) {
+        bestVisits = total[move];
+        best = move;
+      }
+    }
+    return best;
+  }
+
+  /**
+   *  A task that runs search iterations on one tree with a board of its own, until the time
+   *  runs out or the shared playout budget is used up.  Each iteration starts by restoring
+   *  the board to a snapshot of the root position, which costs less than undoing the moves
+   *  of the last one.
+   **/
+  private static class Playouts extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final MonteCarloTree tree;
+    private final GameBoard.Snapshot root;
+    private final GameBoard board;
+    private final int player;
+    private final long deadline;
+    private final AtomicInteger budget;
+    private final int[] moves;
+    private final int[] path;
+    private long random;
+
+    Playouts(MonteCarloTree tree, GameBoard.Snapshot root, int player, long deadline,
+             AtomicInteger budget, long seed) {
+      this.tree = tree;
+      this.root = root;
+      board = new GameBoard(player);
+      this.player = player;
+      this.deadline = deadline;
+      this.budget = budget;
+      this.random = seed;
+      moves = new int[GameBoard.MAXMOVES];
+      path = new int[MAXPATH];
+    }
+
+    protected void compute() {
+      for (int done = 0; budget.getAndDecrement() > 0; done++) {
+        if (deadline > 0 && (done & 15) == 0 && System.currentTimeMillis() >= deadline) {
+          return;
+        }
+        iterate();
+      }
+    }
+
+    /**
+     *  iterate() runs one search iteration: it walks down the tree, plays out the game from
+     *  the node it stops at and scores the path.
+     **/
+    private void iterate() {
+      int node = 0;
+      int mover = player;
+      int depth = 0;
+      board.restore(root);
+      tree.visit(node);
+      while (board.terminalStatus() == 0 && depth + 1 < MAXPATH) {
+        if (tree.childCount(node) == 0 && tree.visits(node) >= EXPANDVISITS) {
+          tree.expand(node, moves, board.listMoves(mover, moves));
+        }
+        if (tree.childCount(node) == 0) {
+          break;
+        }
+        node = tree.select(node);
+        tree.visit(node);
+        path[++depth] = node;
+        board.applyMove(tree.move(node), mover);
+        mover = GameBoard.opponentOf(mover);
+      }
+      int winner = playout(mover);
+      for (int i = 1; i <= depth; i++) {
+        int who = (i & 1) == 1 ? player : GameBoard.opponentOf(player);
+        tree.score(path[i], winner == 0 ? 1 : (winner == who ? 2 : 0));
+      }
+    }
+
+    /**
+     *  playout() plays random moves, never the quit move unless it is the only one, until
+     *  a player makes a network or PLAYOUTLIMIT moves have been made.
+     *  @param mover is the color of the player to move.
+     *  @return the color of the winner, or 0 for a draw. A player who completes networks
+     *  for both players loses.
+     **/
+    private int playout(int mover) {
+      for (int ply = 0; ply <= PLAYOUTLIMIT; ply++) {
+        int status = board.terminalStatus();
+        if (status != 0) {
+          return (status & mover) != 0 ? mover : GameBoard.opponentOf(mover);
+        }
+        if (ply == PLAYOUTLIMIT) {
+          break;
+        }
+        int count = board.listMoves(mover, moves);
+        board.applyMove(count > 1 ? moves[1 + next(count - 1)] : moves[0], mover);
+        mover = GameBoard.opponentOf(mover);
+      }
+      return 0;
+    }
+
+    /**
+     *  next() returns a pseudo-random number from 0 to bound - 1, by xorshift.
+     **/
+    private int next(int bound) {
+      random ^= random << 13;
+      random ^= random >>> 7;
+      random ^= random << 17;
+      return (int) ((random >>> 33) % bound);
+    }
+
+  }
+
+  // If the Move m is legal, records the move as a move by the opponent
+  // (updates the internal game board) and returns true.  If the move is
+  // illegal, returns false without modifying the internal state of "this"
+  // player.  This method allows your opponents to inform you of their moves.
+  public boolean opponentMove(Move m) {
+    if (board.isValidMove(m, (1 - color) + 1)) {
+      if (trees != null) {
+        int move = PackedMove.fromMove(m);
+        for (int i = 0; i < trees.length; i++) {
+          roots[i] = roots[i] < 0 ? -1 : trees[i].child(roots[i], move);
+        }
+      }
+      board.applyMove(PackedMove.fromMove(m), (1 - color) + 1);
+      rootKey = board.getHash(color + 1);
+      return true;
+    }
+    return false;
+  }
+
+  // If the Move m is legal, records the move as a move by "this" player
+  // (updates the internal game board) and returns true.  If the move is
+  // illegal, returns false without modifying the internal state of "this"
+  // player.  This method is used to help set up "Network problems" for your
+  // player to solve.
+  public boolean forceMove(Move m) {
+    if (board.isValidMove(m, color + 1)) {
+      trees = null;
+      board.applyMove(PackedMove.fromMove(m), color + 1);
+      return true;
+    }
+    return false;
+  }
+
+  public static void main(String[] args) {
+    MonteCarloPlayer thisone = new MonteCarloPlayer(1, 0, 2000);
+    thisone.board.makeMove(new Move(1, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(2, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(4, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(5, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(1, 6), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(0, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(0, 4), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 5), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 5), GameBoard.WHITE);
+    thisone.chooseMove();
+    System.out.println(thisone.board.hasValidNetwork(GameBoard.WHITE));
+
+    thisone = new MonteCarloPlayer(1, 0, 2000);
+    thisone.chooseMove();
+    thisone.chooseMove();
+    System.out.println(thisone.board.hasValidNetwork(GameBoard.WHITE));
+
+    thisone = new MonteCarloPlayer(1, 0, 2000);
+    thisone.setThreads(4, TREEPARALLEL);
+    thisone.board.makeMove(new Move(1, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(2, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(4, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(5, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(1, 6), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(0, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(0, 4), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 5), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 5), GameBoard.WHITE);
+    thisone.chooseMove();
+    System.out.println(thisone.board.hasValidNetwork(GameBoard.WHITE));
+
+    thisone = new MonteCarloPlayer(1, 0, 2000);
+    thisone.setThreads(4, ROOTPARALLEL);
+    thisone.board.makeMove(new Move(1, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(2, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(4, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(5, 1), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(1, 6), GameBoard.BLACK);
+    thisone.board.makeMove(new Move(0, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 2), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(0, 4), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(1, 5), GameBoard.WHITE);
+    thisone.board.makeMove(new Move(4, 5), GameBoard.WHITE);
+    thisone.chooseMove();
+    System.out.println(thisone.board.hasValidNetwork(GameBoard.WHITE));
+  }
+
+}
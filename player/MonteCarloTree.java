@@ -0,0 +1,189 @@
+/* MonteCarloTree.java */
+
+package player;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The search tree of MonteCarloPlayer, kept in parallel arrays indexed by
+ *  node number instead of node objects.  Node 0 is the root.  The children of
+ *  a node are numbered consecutively from firstChild[node], and each holds the
+ *  packed move (see PackedMove) that leads to it.
+ *
+ *  visits[node] counts the playouts through a node, and wins[node] scores
+ *  them for the player who made the node's move: 2 for a win, 1 for a draw.
+ *  Both are atomic so several threads can share one tree.  A thread counts
+ *  its visit on the way down, before its playout, so until the result comes
+ *  back the visit looks like a loss ("virtual loss") and other threads are
+ *  steered to other nodes.  Nodes are added under a lock; childCount[node] is
+ *  written last, so a thread that sees it also sees the children.
+ **/
+class MonteCarloTree {
+
+  // Exploration constant of the UCT formula.
+  private final static double EXPLORATION = 1.0;
+
+  private int[] move;
+  private int[] firstChild;
+  private AtomicIntegerArray childCount;
+  private AtomicIntegerArray visits;
+  private AtomicIntegerArray wins;
+  private int size;
+
+  /**
+   *  MonteCarloTree() constructs a tree holding only its root.
+   *  @param capacity is the most nodes the tree can hold, at least 1.
+   **/
+  MonteCarloTree(int capacity) {
+    move = new int[capacity];
+    firstChild = new int[capacity];
+    childCount = new AtomicIntegerArray(capacity);
+    visits = new AtomicIntegerArray(capacity);
+    wins = new AtomicIntegerArray(capacity);
+    size = 1;
+  }
+
+  /**
+   *  move(), visits(), firstChild() and childCount() read the fields of a node.
+   **/
+  int move(int node) {
+    return move[node];
+  }
+
+  int visits(int node) {
+    return visits.get(node);
+  }
+
+  int firstChild(int node) {
+    return firstChild[node];
+  }
+
+  int childCount(int node) {
+    return childCount.get(node);
+  }
+
+  /**
+   *  child() finds the child of a node reached by a given move.
+   *  @param node is the node.
+   *  @param m is the packed move.
+   *  @return the child, or -1 if the node has no child for the move.
+   **/
+  int child(int node, int m) {
+    int first = firstChild[node];
+    for (int child = first; child < first + childCount.get(node); child++) {
+      if (move[child] == m) {
+        return child;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   *  subtree() copies the part of "this" tree below a node into a new tree,
+   *  with the node as its root, so the search of a later move can go on from
+   *  what was learned about that position.  Nodes are copied level by level
+   *  until the new tree is full; a node whose children do not fit is copied
+   *  without them.  No thread may be changing "this" tree.
+   *  @param node is the node that becomes the new root.
+   *  @param capacity is the most nodes the new tree can hold, at least 1.
+   *  @return the new tree.
+   **/
+  MonteCarloTree subtree(int node, int capacity) {
+    MonteCarloTree tree = new MonteCarloTree(capacity);
+    int[] from = new int[capacity];
+    from[0] = node;
+    tree.copyNode(0, this, node);
+    for (int next = 0; next < tree.size; next++) {
+      int old = from[next];
+      int count = childCount.get(old);
+      if (count == 0 || tree.size + count > capacity) {
+        continue;
+      }
+      tree.firstChild[next] = tree.size;
+      for (int i = 0; i < count; i++) {
+        from[tree.size] = firstChild[old] + i;
+        tree.copyNode(tree.size++, this, firstChild[old] + i);
+      }
+      tree.childCount.set(next, count);
+    }
+    return tree;
+  }
+
+  /**
+   *  copyNode() copies the move, visits and wins of a node of another tree.
+   **/
+  private void copyNode(int node, MonteCarloTree other, int old) {
+    move[node] = other.move[old];
+    visits.set(node, other.visits.get(old));
+    wins.set(node, other.wins.get(old));
+  }
+
+  /**
+   *  expand() adds a child for every move of a node, unless another thread
+   *  has already done so or the tree has no room.  The quit move is left out
+   *  unless it is the only move.
+   *  @param node is the node, which has no children yet.
+   *  @param moves holds the packed moves from GameBoard.listMoves(), quit first.
+   *  @param count is the number of moves.
+   **/
+  synchronized void expand(int node, int[] moves, int count) {
+    if (childCount.get(node) != 0) {
+      return;
+    }
+    int from = count > 1 ? 1 : 0;
+    if (size + count - from > move.length) {
+      return;
+    }
+    firstChild[node] = size;
+    for (int i = from; i < count; i++) {
+      move[size++] = moves[i];
+    }
+    childCount.set(node, count - from);
+  }
+
+  /**
+   *  select() picks the child of a node to search next by UCT: the one with
+   *  the highest win rate plus an exploration bonus that shrinks as the child
+   *  is visited.  Unvisited children come first.
+   *  @param node is a node with children.
+   *  @return the chosen child.
+   **/
+  int select(int node) {
+    int first = firstChild[node];
+    int end = first + childCount.get(node);
+    double log = Math.log(Math.max(visits.get(node), 1));
+    int best = first;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int child = first; child < end; child++) {
+      int n = visits.get(child);
+      if (n == 0) {
+        return child;
+      }
+      double value = wins.get(child) / (2.0 * n) + EXPLORATION * Math.sqrt(log / n);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   *  visit() counts a playout through a node, before its result is known.
+   **/
+  void visit(int node) {
+    visits.incrementAndGet(node);
+  }
+
+  /**
+   *  score() adds the result of a playout through a node, for the player who
+   *  made the node's move.
+   *  @param points is 2 for a win, 1 for a draw and 0 for a loss.
+   **/
+  void score(int node, int points) {
+    if (points != 0) {
+      wins.addAndGet(node, points);
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+/* NetworkSolver.java */
+
+package player;
+
+/**
+ *  A mate search for networks.  solve() looks for a forced win: a move after
+ *  which, whatever the opponent replies, the player can go on to complete a
+ *  network within a fixed number of its own moves.  Unlike Searcher it never
+ *  evaluates a position; a line either ends in a network or fails.
+ *
+ *  Only the winning side's moves are pruned, to threat-related ones (see
+ *  GameBoard.isTactical()), which keeps any win it finds sound: every reply
+ *  of the defender is tried.  Most replies do not stop the threat, so the
+ *  winning move found against one reply (the killer for that ply) is tried
+ *  first against the next, and usually refutes it at once.  Lines where the
+ *  winner could not reach both goals and six chips in time, by
+ *  GameBoard.canReachNetwork(), are not searched at all.
+ *
+ *  The search stops after a fixed number of positions, or when its deadline
+ *  passes, so a failure to prove a win means only that none was found.
+ *  threatens() is a much quicker test that every forced win of more than one
+ *  move passes, for callers to try first.
+ **/
+class NetworkSolver {
+
+  // The longest win looked for, in moves of the winning player.
+  final static int MAXLENGTH = 3;
+
+  // The default number of positions searched before giving up.
+  final static int NODELIMIT = 5000;
+
+  // The clock is checked once every CLOCKCHECK + 1 positions.  A position
+  // here costs far more than one of Searcher's, so it is checked more often.
+  private final static int CLOCKCHECK = 15;
+
+  private GameBoard board;
+  private int[][] moveLists;
+  private int[] killers;
+  private long nodeLimit;
+  private long deadline;
+  private long nodes;
+  private boolean aborted;
+
+  /**
+   *  NetworkSolver() constructs a solver.
+   *  @param board is the board to search.  It is changed during solve() but
+   *  restored before solve() returns.
+   *  @param nodeLimit is the number of positions searched before giving up.
+   **/
+  NetworkSolver(GameBoard board, long nodeLimit) {
+    this.board = board;
+    this.nodeLimit = nodeLimit;
+    moveLists = new int[2 * MAXLENGTH][GameBoard.MAXMOVES];
+    killers = new int[2 * MAXLENGTH];
+  }
+
+  /**
+   *  threatens() checks whether a player to move can complete a network now,
+   *  or has a move after which it could complete one with its next move.
+   *  Every forced win solve() can find passes this test, which costs one
+   *  GameBoard.completingMove() for each threat-related move.
+   *  @param player is the color of the player to move.
+   **/
+  boolean threatens(int player) {
+    if (!board.canReachNetwork(player, 2)) {
+      return false;
+    }
+    if (board.completingMove(player) != PackedMove.QUIT) {
+      return true;
+    }
+    int other = GameBoard.opponentOf(player);
+    int[] moves = moveLists[0];
+    int count = board.listMoves(player, moves);
+    for (int i = 1; i < count; i++) {
+      if (board.isTactical(moves[i], player)) {
+        board.applyMove(moves[i], player);
+        boolean threat = !board.hasValidNetwork(other)
+                         && board.completingMove(player) != PackedMove.QUIT;
+        board.revertMove(moves[i], player);
+        if (threat) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   *  solve() looks for a forced network for a player, shortest first.
+   *  @param player is the color of the player to move: GameBoard.BLACK or
+   *  GameBoard.WHITE.
+   *  @param deadline is the time, as from System.currentTimeMillis(), to give
+   *  up by, or 0 for none.
+   *  @return the first move of a forced win, packed, or QUIT if none was found.
+   **/
+  int solve(int player, long deadline) {
+    this.deadline = deadline;
+    nodes = 0;
+    aborted = false;
+    for (int i = 0; i < killers.length; i++) {
+      killers[i] = PackedMove.QUIT;
+    }
+    for (int n = 1; n <= MAXLENGTH && !aborted; n++) {
+      if (attack(player, n, 0)) {
+        return killers[0];
+      }
+    }
+    return PackedMove.QUIT;
+  }
+
+  /**
+   *  attack() checks whether the player to move can complete a network
+   *  within a number of its own moves, whatever the opponent does.  A win
+   *  leaves its first move in killers[ply].
+   *  @param player is the color of the player to move.
+   *  @param n is the number of moves the player may make.
+   *  @param ply is the number of moves from the root.
+   **/
+  private boolean attack(int player, int n, int ply) {
+    if (exhausted()) {
+      return false;
+    }
+    if (!board.canReachNetwork(player, n)) {
+      return false;
+    }
+    int other = GameBoard.opponentOf(player);
+    int killer = killers[ply];
+    boolean hasKiller = killer != PackedMove.QUIT && board.isValidMove(killer, player);
+    if (hasKiller && wins(killer, player, other, 1, ply)) {
+      return true;
+    }
+    // A network completed at once needs no search, so look for one first.
+    int win = board.completingMove(player);
+    if (win != PackedMove.QUIT) {
+      killers[ply] = win;
+      return true;
+    }
+    if (n == 1) {
+      return false;
+    }
+    int[] moves = moveLists[ply];
+    int count = board.listMoves(player, moves);
+    if (hasKiller && wins(killer, player, other, n, ply)) {
+      return true;
+    }
+    for (int i = 1; i < count; i++) {
+      if (moves[i] != killer && board.isTactical(moves[i], player)
+          && wins(moves[i], player, other, n, ply)) {
+        return true;
+      }
+      if (aborted) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   *  exhausted() counts a searched position and sets aborted once the node
+   *  limit is reached or the deadline has passed.
+   *  @return true if the search should stop.
+   **/
+  private boolean exhausted() {
+    if (++nodes > nodeLimit || (deadline > 0 && (nodes & CLOCKCHECK) == 0
+                                && System.currentTimeMillis() >= deadline)) {
+      aborted = true;
+    }
+    return aborted;
+  }
+
+  /**
+   *  wins() makes one move of the attacking player and checks whether it
+   *  completes a network (if n is 1) or forces one in the n - 1 moves after
+   *  it.  Only forcing moves are searched: ones that threaten to complete a
+   *  network with the next move if the opponent does not stop it.  That test
+   *  is cheap, and rules out most moves before any reply is tried.
+   **/
+  private boolean wins(int move, int player, int other, int n, int ply) {
+    board.applyMove(move, player);
+    boolean won;
+    if (n == 1) {
+      won = board.hasValidNetwork(player) && !board.hasValidNetwork(other);
+    } else {
+      won = !board.hasValidNetwork(other) && attack(player, 1, ply + 2)
+            && defend(other, n - 1, ply + 1);
+    }
+    board.revertMove(move, player);
+    if (won) {
+      killers[ply] = move;
+    }
+    return won;
+  }
+
+  /**
+   *  defend() checks whether every move of the player to move lets the
+   *  opponent complete a network within a number of the opponent's moves.
+   *  @param player is the color of the defending player, who is to move.
+   *  @param n is the number of moves the opponent may make.
+   *  @param ply is the number of moves from the root.
+   **/
+  private boolean defend(int player, int n, int ply) {
+    if (exhausted()) {
+      return false;
+    }
+    int other = GameBoard.opponentOf(player);
+    if (!board.canReachNetwork(other, n)) {
+      return false;
+    }
+    int[] moves = moveLists[ply];
+    int count = board.listMoves(player, moves);
+    // Replies that block a connection are the likeliest to stop the threat,
+    // so they go first.
+    int blocks = count > 1 ? 1 : 0;
+    for (int i = blocks; i < count; i++) {
+      if (board.isTactical(moves[i], player)) {
+        int move = moves[i];
+        moves[i] = moves[blocks];
+        moves[blocks++] = move;
+      }
+    }
+    for (int i = count > 1 ? 1 : 0; i < count; i++) {
+      board.applyMove(moves[i], player);
+      int status = board.terminalStatus();
+      boolean lost = (status & other) != 0 || (status == 0 && attack(other, n, ply + 1));
+      board.revertMove(moves[i], player);
+      if (!lost) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
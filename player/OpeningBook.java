@@ -0,0 +1,177 @@
+/* OpeningBook.java */
+
+package player;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ *  A table of precomputed moves for the opening, keyed by
+ *  GameBoard.getHash(player) of the position with the player to move.  The
+ *  book file holds the magic number MAGIC, the number of entries, and then
+ *  the entries sorted by key, each a long key followed by an int packed move
+ *  (see PackedMove), all big-endian.  A lookup is a binary search of the file
+ *  mapped into memory.
+ *
+ *  The book is built offline by main(), which plays games against itself
+ *  with deep searches.  The keys depend on GameBoard's Zobrist keys, so the
+ *  book must be rebuilt if those ever change.
+ **/
+class OpeningBook {
+
+  final static String FILE = "opening.book";
+  private final static int MAGIC = 0x4E424B31;
+  private final static int HEADER = 8;
+  private final static int ENTRY = 12;
+  private final static long SEED = 19;
+
+  private static OpeningBook standard;
+
+  private ByteBuffer entries;
+  private int size;
+
+  /**
+   *  OpeningBook() constructs a book over the bytes of a book file.
+   *  @param buffer holds the file; an empty or malformed one gives an empty book.
+   **/
+  private OpeningBook(ByteBuffer buffer) {
+    if (buffer.limit() >= HEADER && buffer.getInt(0) == MAGIC
+        && (long) buffer.getInt(4) * ENTRY <= buffer.limit() - HEADER) {
+      size = buffer.getInt(4);
+      entries = buffer;
+    }
+  }
+
+  /**
+   *  standard() returns the book in the file FILE next to this class, loading
+   *  it the first time it is asked for.  If there is no such file, or it
+   *  cannot be read, the book is empty.
+   **/
+  static synchronized OpeningBook standard() {
+    if (standard == null) {
+      standard = new OpeningBook(read(OpeningBook.class.getResource(FILE)));
+    }
+    return standard;
+  }
+
+  /**
+   *  read() maps a book file into memory, or reads it into an array if it is
+   *  not a plain file (for example, inside a jar).
+   *  @param url locates the file; may be null.
+   *  @return the contents, or an empty buffer if they cannot be read.
+   **/
+  private static ByteBuffer read(URL url) {
+    if (url == null) {
+      return ByteBuffer.allocate(0);
+    }
+    try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (URISyntaxException | FileSystemNotFoundException | IllegalArgumentException
+             | IOException e) {
+      // Not a plain file; read it as a stream below.
+    }
+    try (InputStream in = url.openStream()) {
+      byte[] bytes = new byte[HEADER];
+      int length = 0;
+      for (int n; (n = in.read(bytes, length, bytes.length - length)) > 0; ) {
+        length += n;
+        if (length == bytes.length) {
+          bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+      }
+      return ByteBuffer.wrap(bytes, 0, length).slice();
+    } catch (IOException e) {
+      return ByteBuffer.allocate(0);
+    }
+  }
+
+  /**
+   *  probe() looks up a position.
+   *  @param key is GameBoard.getHash(player) for the player to move.
+   *  @return the book move, packed, or QUIT if the position is not in the book.
+   **/
+  int probe(long key) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long found = entries.getLong(HEADER + mid * ENTRY);
+      if (found < key) {
+        low = mid + 1;
+      } else if (found > key) {
+        high = mid - 1;
+      } else {
+        return entries.getInt(HEADER + mid * ENTRY + 8);
+      }
+    }
+    return PackedMove.QUIT;
+  }
+
+  /**
+   *  main() builds a book by self-play and writes it to a file.  Each game
+   *  starts from the empty board; at every position within the first plies
+   *  moves, the move found by a search to the given depth goes into the book.
+   *  To reach a spread of positions, each side plays a random move instead
+   *  one time in four.
+   *
+   *  Usage: java player.OpeningBook [games [plies [depth [file]]]]
+   **/
+  public static void main(String[] args) throws IOException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int plies = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int depth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    String file = args.length > 3 ? args[3] : "player/" + FILE;
+    Random random = new Random(SEED);
+    Map<Long, Integer> book = new HashMap<Long, Integer>();
+    TranspositionTable table = new TranspositionTable(64);
+    int[] moves = new int[GameBoard.MAXMOVES];
+    for (int g = 0; g < games; g++) {
+      GameBoard board = new GameBoard(GameBoard.WHITE);
+      int player = GameBoard.WHITE;
+      for (int ply = 0; ply < plies && board.terminalStatus() == 0; ply++) {
+        long key = board.getHash(player);
+        Integer best = book.get(key);
+        if (best == null) {
+          Searcher searcher = new Searcher(board, player - 1, table, depth);
+          table.newSearch();
+          searcher.prepare(0);
+          searcher.search(depth, GameBoard.MINBOARDSCORE, GameBoard.MAXBOARDSCORE);
+          best = searcher.rootBest;
+          book.put(key, best);
+        }
+        int move = best;
+        int count = board.listMoves(player, moves);
+        if (count > 1 && random.nextInt(4) == 0) {
+          move = moves[1 + random.nextInt(count - 1)];
+        }
+        board.applyMove(move, player);
+        player = GameBoard.opponentOf(player);
+      }
+    }
+    Long[] keys = book.keySet().toArray(new Long[0]);
+    Arrays.sort(keys);
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        out.writeLong(keys[i]);
+        out.writeInt(book.get(keys[i]));
+      }
+    }
+    System.out.println(keys.length + " positions written to " + file);
+  }
+
+}
@@ -0,0 +1,90 @@
+/* PackedMove.java */
+
+package player;
+
+/**
+ *  Static helpers for moves packed into a single int, so the search can keep
+ *  moves in int arrays instead of allocating Move objects.  A packed move
+ *  holds the kind (Move.ADD or Move.STEP) in bits 12-13, the old square of a
+ *  step move in bits 6-11 and the new square in bits 0-5, where squares are
+ *  numbered as in Bitboard.  The quit move packs to 0, and every packed move
+ *  is less than SIZE.
+ **/
+final class PackedMove {
+
+  final static int QUIT = 0;
+  final static int SIZE = 1 << 14;
+
+  private PackedMove() {
+  }
+
+  /**
+   *  add() packs an add move.
+   *  @param to is the square the chip is added on.
+   **/
+  static int add(int to) {
+    return (Move.ADD << 12) | to;
+  }
+
+  /**
+   *  step() packs a step move.
+   *  @param from is the square the chip leaves.
+   *  @param to is the square the chip moves to.
+   **/
+  static int step(int from, int to) {
+    return (Move.STEP << 12) | (from << 6) | to;
+  }
+
+  /**
+   *  kind() returns Move.QUIT, Move.ADD or Move.STEP.
+   **/
+  static int kind(int move) {
+    return move >>> 12;
+  }
+
+  /**
+   *  from() returns the old square of a step move.
+   **/
+  static int from(int move) {
+    return (move >>> 6) & 63;
+  }
+
+  /**
+   *  to() returns the new square of an add or step move.
+   **/
+  static int to(int move) {
+    return move & 63;
+  }
+
+  /**
+   *  fromMove() packs a Move.  The coordinates the move uses must be on the
+   *  board.
+   *  @param m is the move to pack.
+   *  @return the packed move; QUIT for a quit move.
+   **/
+  static int fromMove(Move m) {
+    if (m.moveKind == Move.ADD) {
+      return add(Bitboard.square(m.x1, m.y1));
+    } else if (m.moveKind == Move.STEP) {
+      return step(Bitboard.square(m.x2, m.y2), Bitboard.square(m.x1, m.y1));
+    }
+    return QUIT;
+  }
+
+  /**
+   *  toMove() unpacks a move.
+   *  @param move is the packed move.
+   *  @return a new Move equal to the one that was packed.
+   **/
+  static Move toMove(int move) {
+    int to = to(move);
+    if (kind(move) == Move.ADD) {
+      return new Move(Bitboard.x(to), Bitboard.y(to));
+    } else if (kind(move) == Move.STEP) {
+      int from = from(move);
+      return new Move(Bitboard.x(to), Bitboard.y(to), Bitboard.x(from), Bitboard.y(from));
+    }
+    return new Move();
+  }
+
+}
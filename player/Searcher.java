@@ -0,0 +1,713 @@
+/* Searcher.java */
+
+package player;
+
+/**
+ *  The alpha-beta search used by MachinePlayer.  A Searcher owns everything
+ *  that changes while it searches: its GameBoard, one move buffer per ply, the
+ *  killer moves and the history table.  Searchers running in different
+ *  threads therefore share nothing but the transposition table, which is safe
+ *  to use from several threads at once.
+ **/
+class Searcher {
+
+  private final static int CLOCKCHECK = 255;
+  private final static int HISTORYLIMIT = 1 << 24;
+  private final static int[] SHELLGAPS = {132, 57, 23, 10, 4, 1};
+  // The most plies quiesce() searches past the horizon.
+  private final static int QUIESCEPLIES = 6;
+  // Late move reductions: how many moves after the hash move and killers are
+  // searched in full, the least depth left at which later ones are reduced,
+  // and by how much.
+  private final static int FULLMOVES = 3;
+  private final static int REDUCEDEPTH = 3;
+  private final static int REDUCTION = 1;
+  // The most one move can raise evalBoard() for the player making it: one
+  // more goal line (3) and, on each of the 4 lines through the new square, 2
+  // more connections than the opponent.  Taking a chip away never helps.
+  private final static int FUTILITYMARGIN = 3 + 4 * 2;
+
+  private GameBoard board;
+  private int player;
+  private TranspositionTable table;
+  private int[][] moveLists;
+  private int[][] killers;
+  private int[][] history;
+  private long deadline;
+  private long nodes;
+  private int rootDepth;
+  private volatile boolean stopped;
+  private boolean principalVariation;
+  private boolean quiescence;
+  private boolean lateMoveReductions;
+  private boolean futilityPruning;
+  private YoungBrothers brothers;
+  private YoungBrothers.Node node;
+
+  // Results of the last search: the best root move found, the number of root
+  // moves searched to the end, and whether the time limit cut the search short.
+  int rootBest;
+  int rootSearched;
+  boolean aborted;
+
+  // The move to search first at the root, or QUIT to use the table's.
+  int rootHint;
+
+  /**
+   *  Searcher() constructs a searcher.
+   *  @param board is the board to search on.  The searcher changes it while
+   *  searching but always restores it.
+   *  @param color is the color the searcher plays: 0 (black) or 1 (white).
+   *  @param table is the transposition table to use.
+   *  @param maxDepth is the deepest search that will be asked for.
+   **/
+  Searcher(GameBoard board, int color, TranspositionTable table, int maxDepth) {
+    this.board = board;
+    player = color + 1;
+    this.table = table;
+    moveLists = new int[Math.max(maxDepth, 1) + QUIESCEPLIES + 1][GameBoard.MAXMOVES];
+    killers = new int[Math.max(maxDepth, 1)][2];
+    history = new int[3][PackedMove.SIZE];
+  }
+
+  /**
+   *  setPosition() sets the searcher's own board to a position, without
+   *  allocating anything.
+   *  @param position is a snapshot of the position, from GameBoard.snapshot().
+   **/
+  void setPosition(GameBoard.Snapshot position) {
+    board.restore(position);
+  }
+
+  /**
+   *  setTable() changes the transposition table used by later searches.
+   **/
+  void setTable(TranspositionTable table) {
+    this.table = table;
+  }
+
+  /**
+   *  setPrincipalVariation() turns principal variation search on or off.  With
+   *  it on, every move but the first at a node is searched with a null window
+   *  first, and searched again with the full window only if it might be the
+   *  new best.
+   **/
+  void setPrincipalVariation(boolean on) {
+    principalVariation = on;
+  }
+
+  /**
+   *  setQuiescence() turns the threat search at the horizon on or off.  With
+   *  it on, positions at depth 0 are scored by quiesce() instead of
+   *  GameBoard.evalBoard(), so a network completed or blocked just past the
+   *  horizon is not missed.
+   **/
+  void setQuiescence(boolean on) {
+    quiescence = on;
+  }
+
+  /**
+   *  setLateMoveReductions() turns late move reductions on or off.  With them
+   *  on, a step move that comes late in the move order, after FULLMOVES moves
+   *  past the hash move and killers, and has no history of cutoffs at this
+   *  depth is first searched REDUCTION plies shallower with a null window.
+   *  Only if that says it might beat alpha is it searched again in full.
+   **/
+  void setLateMoveReductions(boolean on) {
+    lateMoveReductions = on;
+  }
+
+  /**
+   *  setFutilityPruning() turns futility pruning on or off.  With it on, a
+   *  node with one ply left whose evalBoard() score is FUTILITYMARGIN or more
+   *  below alpha is not searched: no move can raise the score past alpha
+   *  unless evalBoard() scores the position after it as a win, and
+   *  GameBoard.winningMove() looks for that directly, with the same rule for
+   *  a move that completes both networks.  It does nothing while quiescence
+   *  is on, since then a move at such a node can still lead to a network
+   *  further on.
+   **/
+  void setFutilityPruning(boolean on) {
+    futilityPruning = on;
+  }
+
+  /**
+   *  copySettings() turns principal variation search, quiescence, late move
+   *  reductions and futility pruning on or off to match another Searcher, so
+   *  every Searcher of one player searches the same way.  A new search option
+   *  belongs here as well as in the fields.
+   *  @param other is the Searcher whose settings are copied.
+   **/
+  void copySettings(Searcher other) {
+    principalVariation = other.principalVariation;
+    quiescence = other.quiescence;
+    lateMoveReductions = other.lateMoveReductions;
+    futilityPruning = other.futilityPruning;
+  }
+
+  /**
+   *  setBrothers() makes later searches split nodes among threads, or with
+   *  null, search sequentially again.
+   **/
+  void setBrothers(YoungBrothers brothers) {
+    this.brothers = brothers;
+  }
+
+  /**
+   *  prepare() gets ready for the searches that choose one move.  It shifts
+   *  the killer moves two plies, halves the history table and clears rootHint.
+   *  @param deadline is the time (from System.currentTimeMillis()) at which
+   *  searches deeper than 1 stop, or 0 for no time limit.
+   **/
+  void prepare(long deadline) {
+    this.deadline = deadline;
+    nodes = 0;
+    aborted = false;
+    stopped = false;
+    rootHint = PackedMove.QUIT;
+    ageHeuristics();
+  }
+
+  /**
+   *  stop() asks a search running in another thread to stop, as if its time
+   *  limit had passed.  The search sets aborted and returns soon after.  It
+   *  stays stopped until the next prepare().
+   **/
+  void stop() {
+    stopped = true;
+  }
+
+  /**
+   *  nodes() returns the number of positions searched since prepare().
+   **/
+  long nodes() {
+    return nodes;
+  }
+
+  /**
+   *  search() searches the board to a given depth, with "this" searcher's
+   *  color to move.
+   *  @param depth is the depth to search.
+   *  @param alpha and beta are the bounds of the search window.
+   *  @return the score of the best move.  The move is left in rootBest.
+   **/
+  int search(int depth, int alpha, int beta) {
+    rootDepth = depth;
+    rootSearched = 0;
+    return bestMove(depth, player, alpha, beta);
+  }
+
+  /**
+   *  searchMove() searches one root move: it makes the move and searches the
+   *  opponent's replies to depth - 1.
+   *  @param move is the packed root move, which must be valid.
+   *  @param depth is the depth of the root search.
+   *  @param alpha and beta are the bounds of the search window.
+   *  @return the score of the move.  It is meaningless if aborted is set.
+   **/
+  int searchMove(int move, int depth, int alpha, int beta) {
+    rootDepth = depth;
+    board.applyMove(move, player);
+    int score = -bestMove(depth - 1, GameBoard.opponentOf(player), -beta, -alpha);
+    board.revertMove(move, player);
+    return score;
+  }
+
+  /**
+   *  searchBrother() searches one young brother of a split node for
+   *  YoungBrothers.  With principal variation search on, it is searched as
+   *  bestMove() would search it, by scout(), since it is never the first move
+   *  at its node.  It aborts if the time runs out or the split node, or one
+   *  above it, gets a cutoff.
+   *  @param split is the split node.
+   *  @param move is the packed move to search, which must be valid.
+   *  @param mover is the color of the player making the move.
+   *  @param depth is the depth left at the split node.
+   *  @param alpha and beta are the bounds of the search window, for mover.
+   *  @param ply is the number of moves from the root to the split node.
+   *  @return the score of the move for mover.  It is meaningless if aborted is set.
+   **/
+  int searchBrother(YoungBrothers.Node split, int move, int mover, int depth, int alpha,
+                    int beta, int ply) {
+    node = split;
+    aborted = false;
+    rootDepth = ply + depth;
+    board.applyMove(move, mover);
+    int score;
+    if (principalVariation) {
+      score = scout(depth - 1, GameBoard.opponentOf(mover), alpha, beta);
+    } else {
+      score = -bestMove(depth - 1, GameBoard.opponentOf(mover), -beta, -alpha);
+    }
+    board.revertMove(move, mover);
+    node = null;
+    return score;
+  }
+
+  /**
+   *  rootMoves() lists the moves at the root in the order bestMove() would
+   *  search them, the quit move last.
+   *  @param moves is an array of at least GameBoard.MAXMOVES ints.
+   *  @return the number of moves written.
+   **/
+  int rootMoves(int[] moves) {
+    int count = board.listMoves(player, moves);
+    int hashMove = rootHint;
+    if (hashMove == PackedMove.QUIT) {
+      hashMove = TranspositionTable.move(table.probe(board.getHash(player)));
+    }
+    int sortFrom = orderMoves(moves, count, hashMove, 0);
+    sortByHistory(moves, sortFrom, count - 1, player);
+    return count;
+  }
+
+  /**
+   *  timeUp() counts a searched node and checks the clock every CLOCKCHECK + 1 nodes.
+   *  Once the deadline has passed, stop() has been called, or a split node this search is
+   *  working for has had a cutoff, it sets aborted so the search unwinds. Otherwise,
+   *  searches to depth 1 and searches without a deadline are never aborted.
+   *  @return true if the search should stop.
+  **/
+  private boolean timeUp() {
+    nodes++;
+    if (!aborted && (nodes & CLOCKCHECK) == 0
+        && (stopped || (node != null && node.cancelled())
+            || (deadline > 0 && rootDepth > 1 && System.currentTimeMillis() >= deadline))) {
+      aborted = true;
+    }
+    return aborted;
+  }
+
+  /**
+   *  Implemented by vh
+   *  minimaxbestMove() performs a minimax tree search to determine the best move to 
+   *  make, given an array of valid moves from 
+   *  listMoves(). It is written in negamax form: every score is for the player to move, so
+   *  each player maximizes the negation of the other's scores.
+   *  @param int depth, searchDepth value for the player
+   *  @param int mover, the color of the player to move
+   *  @return the score of the best move for mover. At the root, the move itself is left in
+   *  rootBest.
+  **/
+  private int minimaxBestMove(int depth, int mover){
+    int my_score = GameBoard.MINBOARDSCORE;
+    int reply;
+    int ply = rootDepth - depth;
+    if (depth == 0 || board.terminalStatus() != 0) {
+      return board.evalBoard(mover, ply);
+    }
+    int other = GameBoard.opponentOf(mover);
+    int[] my_moves = moveLists[ply];
+    int count = board.listMoves(mover, my_moves);
+    int best = my_moves[0];
+    for (int i = 0; i < count; i++) {
+      board.applyMove(my_moves[i], mover);
+      reply = -minimaxBestMove(depth - 1, other);
+      board.revertMove(my_moves[i], mover);
+      if (reply > my_score) {
+        best = my_moves[i];
+        my_score = reply;
+      }
+    }
+    if (ply == 0) {
+      rootBest = best;
+    }
+    return my_score;
+  }
+  
+  /**
+   *  Implemented by vh
+   *  bestMove() performs alpha-beta pruning for the minimax tree search, in negamax form:
+   *  scores are for the player to move, and a reply's score is negated, with the window
+   *  negated and swapped, to give the score of the move that led to it.
+   *  Results are stored in the transposition table, which is probed first so a
+   *  position reached again (by another move order, or on an earlier move) is
+   *  not searched twice. The stored best move is searched first.
+   *  If the time limit passes, the search stops and returns at once; the scores it returns
+   *  from then on are meaningless and nothing more is stored.
+   *  With YoungBrothers set, once the first move has been searched without a cutoff, the
+   *  rest are searched in parallel if at least SPLITDEPTH is left.
+   *  @param depth is an Integer that determines the searchDepth of "this" MachinePlayer
+   *  @param mover is the color of the player to move
+   *  @param alpha is an Integer, which gives the minimum score mover is already sure of
+   *  @param beta is an Integer, which is the maximum score the other player will allow
+   *  @return the score of the best move for mover. At the root, the move itself is left in
+   *  rootBest.
+  **/
+  private int bestMove(int depth, int mover, int alpha, int beta){
+    int my_score = alpha;
+    int reply;
+    if (timeUp()) {
+      return 0;
+    }
+    int ply = rootDepth - depth;
+    if (depth == 0 && quiescence) {
+      return quiesce(mover, alpha, beta, ply, QUIESCEPLIES);
+    }
+    if (depth == 0 || board.terminalStatus() != 0) {
+      return board.evalBoard(mover, ply);
+    }
+    long key = board.getHash(mover);
+    long entry = table.probe(key);
+    if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+      int score = fromTable(TranspositionTable.score(entry), ply);
+      int bound = TranspositionTable.bound(entry);
+      if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+          || (bound == TranspositionTable.UPPER && score <= alpha)) {
+        return score;
+      }
+    }
+    if (futilityPruning && depth == 1 && ply > 0 && !quiescence
+        && board.evalBoard(mover, ply) + FUTILITYMARGIN <= alpha) {
+      if (board.winningMove(mover) == PackedMove.QUIT) {
+        return alpha;
+      }
+      return GameBoard.MAXBOARDSCORE - (ply + 1);
+    }
+    int alphaOrig = alpha;
+    int other = GameBoard.opponentOf(mover);
+    int[] my_moves = moveLists[ply];
+    int count = board.listMoves(mover, my_moves);
+    int hashMove = PackedMove.QUIT;
+    if (ply == 0 && rootHint != PackedMove.QUIT) {
+      hashMove = rootHint;
+    } else if (entry != 0) {
+      hashMove = TranspositionTable.move(entry);
+    }
+    int sortFrom = orderMoves(my_moves, count, hashMove, ply);
+    int best = my_moves[0];
+  	for (int i = 0; i < count; i++) {
+      if (i == sortFrom) {
+        sortByHistory(my_moves, sortFrom, count - 1, mover);
+      }
+      if (i > 0 && brothers != null && depth >= YoungBrothers.SPLITDEPTH && i < count - 1) {
+        if (i < sortFrom) {
+          sortByHistory(my_moves, sortFrom, count - 1, mover);
+        }
+        YoungBrothers.Node split = new YoungBrothers.Node(node, alpha, beta, best);
+        brothers.search(split, board, my_moves, i, count, mover, depth, ply);
+        my_score = split.alpha;
+        best = split.best;
+        if (ply == 0) {
+          rootSearched += split.searched;
+        }
+        if (split.timedOut || (node != null && node.cancelled())) {
+          aborted = true;
+        } else if (split.cutoff) {
+          recordCutoff(split.cutoffMove, depth, ply, mover);
+        }
+        break;
+      }
+  		board.applyMove(my_moves[i], mover);
+      boolean reduced = lateMoveReductions && ply > 0 && depth >= REDUCEDEPTH
+          && i >= sortFrom + FULLMOVES && PackedMove.kind(my_moves[i]) == Move.STEP
+          && history[mover][my_moves[i]] < depth * depth;
+      reply = alpha + 1;
+      if (reduced) {
+        reply = -bestMove(depth - 1 - REDUCTION, other, -alpha - 1, -alpha);
+      }
+      // A move not reduced, or one the reduced search says might beat alpha,
+      // gets the full search.
+      if (reply > alpha && !aborted) {
+        if (principalVariation && i > 0) {
+          reply = scout(depth - 1, other, alpha, beta);
+        } else {
+          reply = -bestMove(depth - 1, other, -beta, -alpha);
+        }
+      }
+      board.revertMove(my_moves[i], mover);
+      if (aborted) {
+        break;
+      }
+      if (ply == 0) {
+        rootSearched++;
+      }
+      if (reply > my_score) {
+  			best = my_moves[i];
+        my_score = reply;
+        alpha = reply;
+  	  }
+      if (alpha >= beta) {
+        recordCutoff(my_moves[i], depth, ply, mover);
+        break;
+      }
+  	}
+    if (ply == 0) {
+      rootBest = best;
+    }
+    if (aborted) {
+      return my_score;
+    }
+    int bound = TranspositionTable.EXACT;
+    if (my_score <= alphaOrig) {
+      bound = TranspositionTable.UPPER;
+    } else if (my_score >= beta) {
+      bound = TranspositionTable.LOWER;
+    }
+    table.store(key, depth, bound, toTable(my_score, ply), best);
+  	return my_score;
+  }
+
+  /**
+   *  quiesce() scores a position at the horizon by searching only the moves that decide a
+   *  network, until the position is quiet. If the player to move can complete a network, it
+   *  wins. If not, but the opponent threatens to complete one, the player must stop it: the
+   *  only moves tried are the ones that take the square the threat needs, block a line its chip
+   *  would connect along, or cut a connection of the opponent, and if none of them holds the
+   *  player loses. The one other way to hold, by leaving the threat to complete a network of
+   *  the player too (see escapes()), is scored as quiet. Otherwise the position is quiet, and
+   *  its score is evalBoard()'s.
+   *  @param mover is the color of the player to move.
+   *  @param alpha and beta are the bounds of the search window.
+   *  @param ply is the number of moves from the root.
+   *  @param left is the number of plies quiesce() may still search, at most QUIESCEPLIES.
+   *  @return the score of the position for mover.
+  **/
+  private int quiesce(int mover, int alpha, int beta, int ply, int left) {
+    if (timeUp()) {
+      return 0;
+    }
+    int stand = board.evalBoard(mover, ply);
+    int other = GameBoard.opponentOf(mover);
+    if (board.terminalStatus() != 0 || left == 0) {
+      return stand;
+    }
+    boolean canWin = board.canReachNetwork(mover, 1);
+    boolean canLose = board.canReachNetwork(other, 1);
+    if (!canWin && !canLose) {
+      return stand;
+    }
+    if (canWin && board.completingMove(mover) != PackedMove.QUIT) {
+      return GameBoard.MAXBOARDSCORE - (ply + 1);
+    }
+    int threat = canLose ? board.completingMove(other) : PackedMove.QUIT;
+    if (threat == PackedMove.QUIT) {
+      return stand;
+    }
+    // Only moves that take the square the threat needs or break a line its network uses
+    // can stop it, with one exception: a step opens the line through its old square, and
+    // may complete a network of the player too, and lose. A move that sets that up holds
+    // without being searched here; if there is one (see escapes()), it is scored as quiet.
+    long blocks = board.blockingSquares(threat, other);
+    int[] my_moves = moveLists[ply];
+    int count = board.listMoves(mover, my_moves);
+    int my_score = Math.max(alpha, GameBoard.MINBOARDSCORE + ply + 2);
+    for (int i = 1; i < count && my_score < beta; i++) {
+      if ((blocks & (1L << PackedMove.to(my_moves[i]))) != 0
+          || board.cutsConnection(my_moves[i], mover)) {
+        board.applyMove(my_moves[i], mover);
+        int reply = -quiesce(other, -beta, -my_score, ply + 1, left - 1);
+        board.revertMove(my_moves[i], mover);
+        if (aborted) {
+          break;
+        }
+        if (reply > my_score) {
+          my_score = reply;
+        }
+      }
+    }
+    if (stand > my_score && my_score < beta && !aborted && canWin
+        && PackedMove.kind(threat) == Move.STEP
+        && escapes(threat, blocks, mover, my_moves, count)) {
+      my_score = stand;
+    }
+    return my_score;
+  }
+
+  /**
+   *  escapes() checks whether one of the moves quiesce() does not search, which leave the
+   *  opponent's threat in place, would make the threat complete a network of the player too.
+   *  @param threat is the opponent's packed step that completes a network.
+   *  @param blocks holds the new squares of the moves quiesce() searches.
+   *  @param mover is the color of the player to move.
+   *  @param moves holds the player's moves, from GameBoard.listMoves().
+   *  @param count is the number of moves.
+   **/
+  private boolean escapes(int threat, long blocks, int mover, int[] moves, int count) {
+    int other = GameBoard.opponentOf(mover);
+    for (int i = 1; i < count; i++) {
+      if ((blocks & (1L << PackedMove.to(moves[i]))) != 0
+          || board.cutsConnection(moves[i], mover)) {
+        continue;
+      }
+      board.applyMove(moves[i], mover);
+      board.applyMove(threat, other);
+      boolean both = board.hasValidNetwork(mover);
+      board.revertMove(threat, other);
+      board.revertMove(moves[i], mover);
+      if (both) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   *  scout() searches a move that is not the first at its node, for principal variation
+   *  search. It first tests with a null window whether the move beats alpha, which prunes
+   *  far more than the full window, and searches again with the full window only if the
+   *  test says it does.
+   *  @param depth is the depth left after the move.
+   *  @param other is the color of the player to move after the move.
+   *  @param alpha and beta are the window of the node the move was made in.
+   *  @return the score of the move, as bestMove() would return it at that node.
+  **/
+  private int scout(int depth, int other, int alpha, int beta) {
+    int reply = -bestMove(depth, other, -alpha - 1, -alpha);
+    if (reply > alpha && reply < beta && !aborted) {
+      reply = -bestMove(depth, other, -beta, -alpha);
+    }
+    return reply;
+  }
+
+  /**
+   *  toTable() converts a score to the form kept in the transposition table.
+   *  Network scores count moves from the root; the table counts them from the
+   *  stored position instead, so the entry stays right when the position is
+   *  reached at another ply.
+   *  @param score is the score as returned by bestMove().
+   *  @param ply is the number of moves from the root to the position.
+   *  @return the score to store.
+  **/
+  private static int toTable(int score, int ply) {
+    if (score >= GameBoard.NETWORKSCORE) {
+      return score + ply;
+    } else if (score <= -GameBoard.NETWORKSCORE) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  /**
+   *  fromTable() reverses toTable().
+   *  @param score is the score read from the transposition table.
+   *  @param ply is the number of moves from the root to the position.
+   *  @return the score as bestMove() would return it.
+  **/
+  private static int fromTable(int score, int ply) {
+    if (score >= GameBoard.NETWORKSCORE) {
+      return score - ply;
+    } else if (score <= -GameBoard.NETWORKSCORE) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   *  orderMoves() puts the moves most likely to cause a cutoff at the front of a move list:
+   *  the hash move (the best move stored for the position), then this ply's killer moves
+   *  (moves that caused a cutoff in a sibling position). The quit move goes last. The moves
+   *  in between are left for sortByHistory(), which bestMove() calls only if the search
+   *  gets past the moves at the front.
+   *  @param moves is the list of packed moves from GameBoard.listMoves(), quit move first.
+   *  @param count is the number of moves in the list.
+   *  @param hashMove is the hash move, or QUIT if there is none.
+   *  @param ply is the number of moves from the root.
+   *  @return the index of the first move to sort by history.
+  **/
+  private int orderMoves(int[] moves, int count, int hashMove, int ply) {
+    moves[0] = moves[count - 1];
+    moves[count - 1] = PackedMove.QUIT;
+    int front = promote(moves, 0, count - 1, hashMove);
+    front = promote(moves, front, count - 1, killers[ply][0]);
+    front = promote(moves, front, count - 1, killers[ply][1]);
+    return front;
+  }
+
+  /**
+   *  promote() swaps a move, if it is in a given part of a move list, to the start of that
+   *  part.
+   *  @param moves is the list of packed moves.
+   *  @param front is the start of the part of the list to search.
+   *  @param end is the end of the part of the list to search (exclusive).
+   *  @param move is the packed move to promote; QUIT is never promoted.
+   *  @return front + 1 if the move was found; else, front.
+  **/
+  private static int promote(int[] moves, int front, int end, int move) {
+    if (move == PackedMove.QUIT) {
+      return front;
+    }
+    for (int i = front; i < end; i++) {
+      if (moves[i] == move) {
+        moves[i] = moves[front];
+        moves[front] = move;
+        return front + 1;
+      }
+    }
+    return front;
+  }
+
+  /**
+   *  sortByHistory() sorts part of a move list so moves that have caused the most cutoffs,
+   *  weighted by depth, come first. It is a Shell sort in place, so it does not allocate.
+   *  @param moves is the list of packed moves.
+   *  @param from is the start of the part to sort.
+   *  @param to is the end of the part to sort (exclusive).
+   *  @param mover is the color of the player making the moves.
+  **/
+  private void sortByHistory(int[] moves, int from, int to, int mover) {
+    int[] scores = history[mover];
+    for (int g = 0; g < SHELLGAPS.length; g++) {
+      int gap = SHELLGAPS[g];
+      for (int i = from + gap; i < to; i++) {
+        int move = moves[i];
+        int score = scores[move];
+        int j = i;
+        while (j - gap >= from && scores[moves[j - gap]] < score) {
+          moves[j] = moves[j - gap];
+          j -= gap;
+        }
+        moves[j] = move;
+      }
+    }
+  }
+
+  /**
+   *  recordCutoff() remembers a move that caused a cutoff: as the first killer move of its
+   *  ply, and in the history table, with a weight that grows with the depth searched below it.
+   *  @param move is the packed move.
+   *  @param depth is the depth searched below the position the move was made in.
+   *  @param ply is the number of moves from the root.
+   *  @param mover is the color of the player who made the move.
+  **/
+  private void recordCutoff(int move, int depth, int ply, int mover) {
+    if (move == PackedMove.QUIT) {
+      return;
+    }
+    if (killers[ply][0] != move) {
+      killers[ply][1] = killers[ply][0];
+      killers[ply][0] = move;
+    }
+    history[mover][move] += depth * depth;
+    if (history[mover][move] > HISTORYLIMIT) {
+      halveHistory();
+    }
+  }
+
+  /**
+   *  ageHeuristics() carries the killer moves over to the next move's search and halves the
+   *  history table so recent cutoffs count most. By the next search a move by each player
+   *  has been played, so ply p + 2 of the last search is ply p of the next; the killers move
+   *  down two plies and the deepest two start empty.
+  **/
+  private void ageHeuristics() {
+    for (int ply = 0; ply < killers.length; ply++) {
+      int from = ply + 2;
+      killers[ply][0] = from < killers.length ? killers[from][0] : PackedMove.QUIT;
+      killers[ply][1] = from < killers.length ? killers[from][1] : PackedMove.QUIT;
+    }
+    halveHistory();
+  }
+
+  /**
+   *  halveHistory() halves every entry of the history table.
+  **/
+  private void halveHistory() {
+    for (int mover = 0; mover < history.length; mover++) {
+      for (int move = 0; move < PackedMove.SIZE; move++) {
+        history[mover][move] >>= 1;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,122 @@
+/* TranspositionTable.java */
+
+package player;
+
+/**
+ *  A fixed-size hash table of search results, indexed by GameBoard.getHash().
+ *  Entries live in two parallel long arrays, so storing and probing never
+ *  allocate.  data[i] packs the entry in slot i:
+ *
+ *    bits  0-15   best move found, packed as in PackedMove (0 if none)
+ *    bits 16-31   score, as a signed 16-bit integer
+ *    bits 32-39   depth searched below the position
+ *    bits 40-41   bound type: EXACT, LOWER or UPPER
+ *    bits 42-49   generation (search number) that stored the entry
+ *
+ *  and keys[i] holds the full hash of the position XORed with data[i].  A
+ *  data word of 0 marks an empty slot.  A new entry replaces the old one in
+ *  its slot if the old one is for the same position, was stored by an
+ *  earlier search, or was searched no deeper than the new one.
+ *
+ *  Several threads may probe and store at once without locking.  Two stores
+ *  racing on a slot can leave keys[i] from one and data[i] from the other,
+ *  but then keys[i] ^ data[i] matches neither position's hash, so probe()
+ *  treats the slot as empty instead of returning the wrong entry.
+ **/
+class TranspositionTable {
+
+  final static int EXACT = 1;
+  final static int LOWER = 2;
+  final static int UPPER = 3;
+
+  private long[] keys;
+  private long[] data;
+  private int mask;
+  private volatile int generation;
+
+  /**
+   *  TranspositionTable() constructs an empty table using at most the given
+   *  amount of memory.  The number of slots is the largest power of two that
+   *  fits, and at least one.
+   *  @param megabytes is the memory budget, in megabytes.
+   **/
+  TranspositionTable(int megabytes) {
+    long slots = Math.max(1L, ((long) megabytes << 20) / 16);
+    int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+    keys = new long[size];
+    data = new long[size];
+    mask = size - 1;
+    generation = 0;
+  }
+
+  /**
+   *  newSearch() starts a new generation.  Entries from earlier searches stay
+   *  usable but may be overwritten by anything stored from now on.
+   **/
+  void newSearch() {
+    generation = (generation + 1) & 0xFF;
+  }
+
+  /**
+   *  probe() looks up a position.
+   *  @param key is the hash of the position.
+   *  @return the packed entry for the position, or 0 if it is not stored.
+   **/
+  long probe(long key) {
+    int slot = (int) key & mask;
+    long entry = data[slot];
+    if ((keys[slot] ^ entry) == key) {
+      return entry;
+    }
+    return 0;
+  }
+
+  /**
+   *  store() records the result of searching a position.
+   *  @param key is the hash of the position.
+   *  @param depth is the depth searched below the position.
+   *  @param bound is EXACT, LOWER or UPPER.
+   *  @param score is the score found.
+   *  @param move is the code of the best move found, or 0 if there is none.
+   **/
+  void store(long key, int depth, int bound, int score, int move) {
+    int slot = (int) key & mask;
+    long old = data[slot];
+    boolean same = (keys[slot] ^ old) == key;
+    if (old != 0 && !same && generation(old) == generation && depth(old) > depth) {
+      return;
+    }
+    if (move == 0 && same) {
+      move = move(old);
+    }
+    long entry = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) (depth & 0xFF) << 32)
+                 | ((long) bound << 40) | ((long) generation << 42);
+    keys[slot] = key ^ entry;
+    data[slot] = entry;
+  }
+
+  /**
+   *  move(), score(), depth(), bound() and generation() unpack the fields of
+   *  an entry returned by probe().
+   **/
+  static int move(long entry) {
+    return (int) (entry & 0xFFFF);
+  }
+
+  static int score(long entry) {
+    return (short) (entry >>> 16);
+  }
+
+  static int depth(long entry) {
+    return (int) (entry >>> 32) & 0xFF;
+  }
+
+  static int bound(long entry) {
+    return (int) (entry >>> 40) & 0x3;
+  }
+
+  static int generation(long entry) {
+    return (int) (entry >>> 42) & 0xFF;
+  }
+
+}
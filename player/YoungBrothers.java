@@ -0,0 +1,256 @@
+/* YoungBrothers.java */
+
+package player;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Parallel alpha-beta by the Young Brothers Wait Concept.  A Searcher given
+ *  a YoungBrothers searches the first (best-ordered) move of a node on its
+ *  own.  If that does not cause a cutoff and enough depth is left, the
+ *  remaining moves, its "young brothers", are handed to search(), which runs
+ *  each one as a fork-join task.  Idle threads steal those tasks, and a task
+ *  may split its own nodes the same way.
+ *
+ *  Each task searches with a Searcher borrowed from a pool of idle ones,
+ *  setting the Searcher's own board to a snapshot of the split node's
+ *  position, so killer moves and history are per Searcher while the
+ *  transposition table is shared.  Tasks started later see the
+ *  window narrowed by the ones that finished before them.  When a result
+ *  causes a cutoff, the node is marked so the brothers still being searched,
+ *  and every node split below them, abort.
+ **/
+class YoungBrothers {
+
+  // A node is split only if at least this much depth is left below it.
+  final static int SPLITDEPTH = 3;
+
+  private ForkJoinPool pool;
+  private int color;
+  private TranspositionTable table;
+  private int maxDepth;
+  private long deadline;
+  // Holds the settings every Searcher is given; it never searches.
+  private Searcher settings;
+  private ConcurrentLinkedQueue<Searcher> idle;
+  private ConcurrentLinkedQueue<Searcher> all;
+
+  /**
+   *  YoungBrothers() constructs a splitter whose tasks run on the given pool.
+   *  @param pool is the pool to run tasks on.
+   *  @param color is the color of the searching player: 0 (black) or 1 (white).
+   *  @param table is the transposition table every task shares.
+   *  @param maxDepth is the deepest search that will be asked for.
+   **/
+  YoungBrothers(ForkJoinPool pool, int color, TranspositionTable table, int maxDepth) {
+    this.pool = pool;
+    this.color = color;
+    this.table = table;
+    this.maxDepth = maxDepth;
+    idle = new ConcurrentLinkedQueue<Searcher>();
+    all = new ConcurrentLinkedQueue<Searcher>();
+    settings = new Searcher(new GameBoard(color + 1), color, table, 0);
+  }
+
+  /**
+   *  setTable() changes the transposition table used by later tasks.
+   **/
+  void setTable(TranspositionTable table) {
+    this.table = table;
+    for (Searcher searcher : all) {
+      searcher.setTable(table);
+    }
+  }
+
+  /**
+   *  copySettings() makes every Searcher, and every one made later, search
+   *  with the same settings as another Searcher; see Searcher.copySettings().
+   *  @param other is the Searcher whose settings are copied.  Later changes to
+   *  it are not seen until copySettings() is called again.
+   **/
+  void copySettings(Searcher other) {
+    settings.copySettings(other);
+    for (Searcher searcher : all) {
+      searcher.copySettings(other);
+    }
+  }
+
+  /**
+   *  prepare() gets every Searcher ready for the searches that choose one
+   *  move, as Searcher.prepare() does.  No task may be running.
+   *  @param deadline is the time at which searches stop, or 0 for none.
+   **/
+  void prepare(long deadline) {
+    this.deadline = deadline;
+    for (Searcher searcher : all) {
+      searcher.prepare(deadline);
+    }
+  }
+
+  /**
+   *  nodes() returns the number of positions searched by tasks since prepare().
+   **/
+  long nodes() {
+    long nodes = 0;
+    for (Searcher searcher : all) {
+      nodes += searcher.nodes();
+    }
+    return nodes;
+  }
+
+  /**
+   *  search() searches the young brothers of a node in parallel and returns
+   *  once all of them are done or aborted.  The results are left in split.
+   *  @param split holds the node's window, best score and best move so far.
+   *  @param board is the board at the node.  It is only read, to take a
+   *  snapshot, before the brothers are searched.
+   *  @param moves is the node's move list.
+   *  @param from is the index of the first young brother.
+   *  @param count is the number of moves in the list.
+   *  @param player is the color of the player to move.
+   *  @param depth is the depth left at the node.
+   *  @param ply is the number of moves from the root to the node.
+   **/
+  void search(Node split, GameBoard board, int[] moves, int from, int count, int player,
+              int depth, int ply) {
+    GameBoard.Snapshot position = board.snapshot();
+    Brother[] brothers = new Brother[count - from];
+    for (int i = 0; i < brothers.length; i++) {
+      brothers[i] = new Brother(split, position, moves[from + i], player, depth, ply);
+    }
+    if (ForkJoinTask.inForkJoinPool()) {
+      ForkJoinTask.invokeAll(brothers);
+    } else {
+      for (int i = 0; i < brothers.length; i++) {
+        pool.execute(brothers[i]);
+      }
+      for (int i = 0; i < brothers.length; i++) {
+        brothers[i].join();
+      }
+    }
+  }
+
+  /**
+   *  borrow() takes an idle Searcher, or makes a new one if there is none.
+   **/
+  private Searcher borrow() {
+    Searcher searcher = idle.poll();
+    if (searcher == null) {
+      searcher = new Searcher(new GameBoard(color + 1), color, table, maxDepth);
+      searcher.setBrothers(this);
+      searcher.copySettings(settings);
+      searcher.prepare(deadline);
+      all.add(searcher);
+    }
+    return searcher;
+  }
+
+  /**
+   *  The shared state of a split node: its window and the best result found
+   *  so far, for the player to move there.  alpha is also the best score so
+   *  far.  Brothers record their scores here as they finish.
+   **/
+  static class Node {
+
+    final Node parent;
+    final int beta;
+    int alpha;
+    int best;
+    int searched;
+    int cutoffMove;
+    volatile boolean cutoff;
+    volatile boolean timedOut;
+
+    /**
+     *  Node() constructs the state of a node after its first move.
+     *  @param parent is the split node the searching task belongs to, or null.
+     *  @param alpha and beta are the node's window.
+     *  @param best is the best move so far.
+     **/
+    Node(Node parent, int alpha, int beta, int best) {
+      this.parent = parent;
+      this.alpha = alpha;
+      this.beta = beta;
+      this.best = best;
+    }
+
+    /**
+     *  record() records the score of a young brother searched to the end.
+     **/
+    synchronized void record(int move, int reply) {
+      searched++;
+      if (reply > alpha) {
+        best = move;
+        alpha = reply;
+      }
+      if (alpha >= beta && !cutoff) {
+        cutoffMove = move;
+        cutoff = true;
+      }
+    }
+
+    /**
+     *  cancelled() checks whether this node or any split node above it has
+     *  had a cutoff, so searching below it is wasted.
+     **/
+    boolean cancelled() {
+      for (Node node = this; node != null; node = node.parent) {
+        if (node.cutoff) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   *  A task that searches one young brother: it sets a borrowed Searcher's
+   *  board to the split node's position, makes the move and searches the
+   *  replies.
+   **/
+  private class Brother extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+    private final Node split;
+    private final GameBoard.Snapshot position;
+    private final int move;
+    private final int player;
+    private final int depth;
+    private final int ply;
+
+    Brother(Node split, GameBoard.Snapshot position, int move, int player, int depth,
+            int ply) {
+      this.split = split;
+      this.position = position;
+      this.move = move;
+      this.player = player;
+      this.depth = depth;
+      this.ply = ply;
+    }
+
+    protected void compute() {
+      if (split.cancelled() || split.timedOut) {
+        return;
+      }
+      int alpha;
+      synchronized (split) {
+        alpha = split.alpha;
+      }
+      Searcher searcher = borrow();
+      searcher.setPosition(position);
+      int reply = searcher.searchBrother(split, move, player, depth, alpha, split.beta, ply);
+      if (!searcher.aborted) {
+        split.record(move, reply);
+      } else if (!split.cancelled()) {
+        split.timedOut = true;
+      }
+      idle.add(searcher);
+    }
+
+  }
+
+}